@@ -0,0 +1,15 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * Interfaz para acciones a realizar en los vecinos de un vértice de
+ * gráfica, junto con el peso de la arista que los une.
+ */
+public interface AccionVecinoGrafica<T> {
+
+    /**
+     * Realiza la acción en el vecino.
+     * @param vecino el vecino.
+     * @param peso el peso de la arista al vecino.
+     */
+    public void actua(VerticeGrafica<T> vecino, double peso);
+}
@@ -0,0 +1,146 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Arrays;
+
+/**
+ * <p>Clase paquete-privada para la representación compacta (CSR) de
+ * una {@link Grafica}.</p>
+ *
+ * <p>Los vértices se numeran de 0 a <em>n</em>-1; los vecinos del
+ * vértice <em>i</em> están en <tt>vecinos[inicio[i]]</tt> hasta
+ * <tt>vecinos[inicio[i+1]-1]</tt>, y el peso de cada arista en la
+ * misma posición de <tt>pesos</tt>. Como las gráficas no son
+ * dirigidas, cada arista aparece dos veces.</p>
+ */
+class AdyacenciaCompacta<T> {
+
+    /* Los elementos, indexados por vértice. */
+    public Object[] elementos;
+    /* Dónde empiezan los vecinos de cada vértice; tiene n+1 entradas. */
+    public int[] inicio;
+    /* Los índices de los vecinos. */
+    public int[] vecinos;
+    /* Los pesos de las aristas hacia los vecinos. */
+    public double[] pesos;
+
+    /* Crea una representación vacía para n vértices y m aristas
+     * dirigidas. */
+    public AdyacenciaCompacta(int n, int m) {
+        elementos = new Object[n];
+        inicio = new int[n+1];
+        vecinos = new int[m];
+        pesos = new double[m];
+    }
+
+    /* Regresa el número de vértices. */
+    public int getVertices() {
+        return elementos.length;
+    }
+
+    /* Regresa el elemento del i-ésimo vértice. */
+    public T getElemento(int i) {
+        @SuppressWarnings("unchecked") T t = (T)elementos[i];
+        return t;
+    }
+
+    /* Regresa el grado del i-ésimo vértice. */
+    public int getGrado(int i) {
+        return inicio[i+1] - inicio[i];
+    }
+
+    /* Regresa el ancho de banda: la máxima diferencia entre los
+     * índices de dos vértices conectados. */
+    public int anchoDeBanda() {
+        int ancho = 0;
+        for (int i = 0; i < getVertices(); i++)
+            for (int k = inicio[i]; k < inicio[i+1]; k++)
+                ancho = Math.max(ancho, Math.abs(i - vecinos[k]));
+        return ancho;
+    }
+
+    /* Regresa un orden BFS de los vértices: orden[k] es el vértice
+     * que queda en la posición k. Cada componente se recorre a partir
+     * de su vértice con menor índice. */
+    public int[] ordenBFS() {
+        int n = getVertices();
+        int[] orden = new int[n];
+        boolean[] visto = new boolean[n];
+        int fin = 0;
+        for (int s = 0; s < n; s++) {
+            if (visto[s])
+                continue;
+            visto[s] = true;
+            orden[fin++] = s;
+            /* El arreglo de salida es también la cola. */
+            for (int c = fin - 1; c < fin; c++) {
+                int v = orden[c];
+                for (int k = inicio[v]; k < inicio[v+1]; k++) {
+                    int u = vecinos[k];
+                    if (!visto[u]) {
+                        visto[u] = true;
+                        orden[fin++] = u;
+                    }
+                }
+            }
+        }
+        return orden;
+    }
+
+    /* Regresa el orden de Cuthill–McKee inverso: cada componente se
+     * recorre con BFS a partir de su vértice de grado mínimo,
+     * visitando a los vecinos por grado creciente, y al final se
+     * invierte el orden. */
+    public int[] ordenCuthillMcKee() {
+        int n = getVertices();
+        int[] orden = new int[n];
+        boolean[] visto = new boolean[n];
+        int[] porGrado = ordenaPorGrado();
+        long[] llaves = new long[16];
+        int fin = 0;
+        for (int s : porGrado) {
+            if (visto[s])
+                continue;
+            visto[s] = true;
+            orden[fin++] = s;
+            for (int c = fin - 1; c < fin; c++) {
+                int v = orden[c];
+                int l = 0;
+                if (llaves.length < getGrado(v))
+                    llaves = new long[getGrado(v)];
+                for (int k = inicio[v]; k < inicio[v+1]; k++) {
+                    int u = vecinos[k];
+                    if (!visto[u]) {
+                        visto[u] = true;
+                        llaves[l++] = ((long)getGrado(u) << 32) | u;
+                    }
+                }
+                Arrays.sort(llaves, 0, l);
+                for (int i = 0; i < l; i++)
+                    orden[fin++] = (int)llaves[i];
+            }
+        }
+        for (int i = 0, j = n - 1; i < j; i++, j--) {
+            int t = orden[i];
+            orden[i] = orden[j];
+            orden[j] = t;
+        }
+        return orden;
+    }
+
+    /* Regresa los vértices ordenados por grado, con counting sort. */
+    private int[] ordenaPorGrado() {
+        int n = getVertices();
+        int maximo = 0;
+        for (int i = 0; i < n; i++)
+            maximo = Math.max(maximo, getGrado(i));
+        int[] cuenta = new int[maximo + 2];
+        for (int i = 0; i < n; i++)
+            cuenta[getGrado(i) + 1]++;
+        for (int g = 1; g < cuenta.length; g++)
+            cuenta[g] += cuenta[g-1];
+        int[] orden = new int[n];
+        for (int i = 0; i < n; i++)
+            orden[cuenta[getGrado(i)]++] = i;
+        return orden;
+    }
+}
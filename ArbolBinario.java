@@ -1,6 +1,11 @@
 package mx.unam.ciencias.edd;
 
+import java.util.ArrayDeque;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * <p>Clase abstracta para árboles binarios genéricos.</p>
@@ -8,6 +13,13 @@ import java.util.NoSuchElementException;
  * <p>La clase proporciona las operaciones básicas para árboles
  * binarios, pero deja la implementación de varios en manos de las
  * clases concretas.</p>
+ *
+ * <p>Cada vértice guarda la altura de su subárbol. Si una clase
+ * concreta pone {@link #alturasMantenidas} en <tt>true</tt> y llama
+ * {@link #actualizaAlturas} cada vez que cuelga o descuelga vértices,
+ * {@link #profundidad} cuesta tiempo constante; si no, la
+ * profundidad se calcula sin recursión en cada llamada, sin escribir
+ * en los vértices, así que varios hilos pueden pedirla a la vez.</p>
  */
 public abstract class ArbolBinario<T> implements Iterable<T> {
 
@@ -25,6 +37,8 @@ public abstract class ArbolBinario<T> implements Iterable<T> {
         public Vertice<T> derecho;
         /** El color del nodo. */
         public Color color;
+        /** La altura del subárbol del vértice; una hoja tiene 0. */
+        public int altura;
 
         /**
          * Constructor único que recibe un elemento.
@@ -119,10 +133,105 @@ public abstract class ArbolBinario<T> implements Iterable<T> {
         }
     }
 
+    /* Spliterador para recorrer el árbol en orden (izquierdo,
+     * vértice, derecho). Antes de empezar a recorrer, representa un
+     * vértice pendiente seguido de un subárbol, y se parte cediendo
+     * el pendiente junto con el subárbol izquierdo. */
+    private class Spliterador implements Spliterator<T> {
+
+        /* Vértice a visitar antes del subárbol, o null. */
+        private Vertice<T> pendiente;
+        /* Subárbol a visitar después del pendiente. */
+        private Vertice<T> subarbol;
+        /* Pila del recorrido, una vez que empezó. */
+        private ArrayDeque<Vertice<T>> pila;
+        /* Número estimado de elementos restantes. */
+        private long estimado;
+        /* Si el estimado es exacto. */
+        private boolean exacto;
+
+        /* Crea un spliterador para el pendiente y el subárbol. */
+        public Spliterador(Vertice<T> pendiente, Vertice<T> subarbol,
+                           long estimado, boolean exacto) {
+            this.pendiente = pendiente;
+            this.subarbol = subarbol;
+            this.estimado = estimado;
+            this.exacto = exacto;
+        }
+
+        /* Visita el siguiente elemento, si lo hay. */
+        @Override public boolean tryAdvance(Consumer<? super T> accion) {
+            if (pila == null)
+                empieza();
+            Vertice<T> v;
+            if (pendiente != null) {
+                /* El subárbol derecho del pendiente no es nuestro. */
+                v = pendiente;
+                pendiente = null;
+            } else if (!pila.isEmpty()) {
+                v = pila.pop();
+                baja(v.derecho);
+            } else {
+                return false;
+            }
+            if (estimado > 0)
+                estimado--;
+            accion.accept(v.elemento);
+            return true;
+        }
+
+        /* Cede el pendiente y el subárbol izquierdo, y se queda con
+         * la raíz y el subárbol derecho. */
+        @Override public Spliterator<T> trySplit() {
+            if (pila != null || subarbol == null)
+                return null;
+            long mitad = estimado >>> 1;
+            Spliterador prefijo = new Spliterador(pendiente,
+                                                  subarbol.izquierdo,
+                                                  mitad, false);
+            pendiente = subarbol;
+            subarbol = subarbol.derecho;
+            estimado -= mitad;
+            exacto = false;
+            return prefijo;
+        }
+
+        /* Regresa el número estimado de elementos restantes. */
+        @Override public long estimateSize() {
+            return estimado;
+        }
+
+        /* Los elementos tienen orden; sólo sabemos cuántos son si no
+         * nos han partido. */
+        @Override public int characteristics() {
+            return exacto ? ORDERED | SIZED : ORDERED;
+        }
+
+        /* Inicializa la pila del recorrido. */
+        private void empieza() {
+            pila = new ArrayDeque<Vertice<T>>();
+            baja(subarbol);
+        }
+
+        /* Mete a la pila el vértice y sus izquierdos. */
+        private void baja(Vertice<T> v) {
+            while (v != null) {
+                pila.push(v);
+                v = v.izquierdo;
+            }
+        }
+    }
+
     /** La raíz del árbol. */
     protected Vertice<T> raiz;
     /** El número de elementos */
     protected int elementos;
+    /**
+     * Si la clase concreta mantiene al día las alturas de los
+     * vértices con {@link #actualizaAlturas}. Si es <tt>false</tt>,
+     * {@link #profundidad} las recalcula en cada llamada.
+     */
+    protected boolean alturasMantenidas;
 
     /**
      * Construye un árbol con cero elementos.
@@ -134,19 +243,78 @@ public abstract class ArbolBinario<T> implements Iterable<T> {
     /**
      * Regresa la profundidad del árbol. La profundidad de un árbol
      * es la longitud de la ruta más larga entre la raíz y una hoja.
+     * Si las alturas se mantienen al día, se lee de la raíz en tiempo
+     * constante; si no, se calcula en tiempo lineal recorriendo el
+     * árbol por niveles, sin modificar los vértices.
      * @return la profundidad del árbol.
      */
     public int profundidad() {
-        return profundidad(raiz) - 1;
+        if (alturasMantenidas)
+            return altura(raiz);
+        if (raiz == null)
+            return -1;
+        /* Recorrido por niveles con una cola, para no desbordar la
+         * pila de llamadas en árboles degenerados. */
+        ArrayDeque<Vertice<T>> cola = new ArrayDeque<Vertice<T>>();
+        cola.add(raiz);
+        int niveles = 0;
+        while (!cola.isEmpty()) {
+            niveles++;
+            for (int i = cola.size(); i > 0; i--) {
+                Vertice<T> v = cola.poll();
+                if (v.izquierdo != null)
+                    cola.add(v.izquierdo);
+                if (v.derecho != null)
+                    cola.add(v.derecho);
+            }
+        }
+        return niveles - 1;
     }
 
-    private int profundidad(Vertice<T> v){ 
-        if (v == null)
-        return 0;
-        int i = profundidad(v.izquierdo), d = profundidad(v.derecho);
-        if(i > d)
-        return 1 + i;
-        return 1 + d;
+    /**
+     * Actualiza las alturas desde el vértice recibido hasta la raíz.
+     * Se debe llamar con el padre de un vértice que se colgó o
+     * descolgó, o con el vértice más bajo de una rotación; cuesta
+     * tiempo proporcional a la profundidad del vértice.
+     * @param vertice el vértice más bajo cuyos hijos cambiaron.
+     */
+    protected void actualizaAlturas(Vertice<T> vertice) {
+        for (Vertice<T> v = vertice; v != null; v = v.padre)
+            v.altura = 1 + Math.max(altura(v.izquierdo), altura(v.derecho));
+    }
+
+    /**
+     * Recalcula la altura de todos los vértices del árbol, en tiempo
+     * lineal. Sirve después de cambios que no pasan por {@link
+     * #actualizaAlturas}.
+     */
+    protected void recalculaAlturas() {
+        /* Recorrido en postorden con una pila, para no desbordar la
+         * pila de llamadas en árboles degenerados. */
+        ArrayDeque<Vertice<T>> pila = new ArrayDeque<Vertice<T>>();
+        Vertice<T> ultimo = null;
+        Vertice<T> v = raiz;
+        while (v != null || !pila.isEmpty()) {
+            if (v != null) {
+                pila.push(v);
+                v = v.izquierdo;
+                continue;
+            }
+            Vertice<T> tope = pila.peek();
+            if (tope.derecho != null && tope.derecho != ultimo) {
+                v = tope.derecho;
+            } else {
+                pila.pop();
+                tope.altura = 1 + Math.max(altura(tope.izquierdo),
+                                           altura(tope.derecho));
+                ultimo = tope;
+            }
+        }
+    }
+
+    /* Regresa la altura guardada del vértice, o -1 si es null. */
+    private int altura(Vertice<T> v) {
+        return v == null ? -1 : v.altura;
     }
 
     /**
@@ -199,9 +367,40 @@ public abstract class ArbolBinario<T> implements Iterable<T> {
             return vd;
     }
 
+    /**
+     * Regresa un {@link Spliterator} que recorre el árbol en orden:
+     * primero el subárbol izquierdo, luego el vértice y al final el
+     * subárbol derecho. Se parte por subárboles, así que puede
+     * recorrerse en paralelo; sólo conoce el número exacto de
+     * elementos antes de partirse. El árbol no debe modificarse
+     * mientras se recorre.
+     * @return un spliterator para recorrer el árbol en orden.
+     */
+    @Override public Spliterator<T> spliterator() {
+        return new Spliterador(null, raiz, elementos, true);
+    }
+
+    /**
+     * Regresa un flujo secuencial con los elementos del árbol, en
+     * orden.
+     * @return un flujo secuencial con los elementos del árbol.
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Regresa un flujo paralelo con los elementos del árbol.
+     * @return un flujo paralelo con los elementos del árbol.
+     */
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
     public String generaScalableVectorGraphics() { 
-int ancho = (int)(Math.pow(2,profundidad())) * 110; 
-int alto = (profundidad()+1) * 110; 
+int p = profundidad();
+int ancho = (int)(Math.pow(2,p)) * 110; 
+int alto = (p+1) * 110; 
 String cad= "<svg width='"+ancho+"' height='"+alto+"'><g>"; 
 cad += Aux(raiz,ancho,0,0); 
 return cad + "</g></svg>"; 
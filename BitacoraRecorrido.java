@@ -0,0 +1,112 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Arrays;
+
+/**
+ * <p>Clase para bitácoras de recorridos en gráficas.</p>
+ *
+ * <p>Una bitácora se le pasa a {@link Grafica#bfs(Object,
+ * AccionVerticeGrafica, BitacoraRecorrido)}, {@link Grafica#dfs(Object,
+ * AccionVerticeGrafica, BitacoraRecorrido)}, {@link
+ * Grafica#trayectoriaMinima(Object, Object, BitacoraRecorrido)} o
+ * {@link Grafica#dijkstra(Object, Object, BitacoraRecorrido)}, que
+ * anotan en ella cada vértice descubierto, cada vértice visitado, las
+ * aristas por las que se descubrieron, y la trayectoria final. Los
+ * eventos se guardan en arreglos de enteros, y {@link
+ * Grafica#generaScalableVectorGraphics(BitacoraRecorrido, double)}
+ * los convierte en un solo SVG animado.</p>
+ *
+ * <p>La bitácora sólo es válida mientras la gráfica que la llenó no
+ * se modifique.</p>
+ */
+public class BitacoraRecorrido {
+
+    /* Un vértice se descubrió desde otro. */
+    static final int DESCUBIERTO = 0;
+    /* Un vértice se visitó. */
+    static final int VISITADO = 1;
+    /* Un vértice es parte de la trayectoria final. */
+    static final int TRAYECTORIA = 2;
+
+    /* El tipo de cada evento. */
+    int[] tipos;
+    /* El vértice de cada evento. */
+    int[] vertices;
+    /* El vértice desde el que se llegó, o -1. */
+    int[] origenes;
+    /* El paso de cada evento. */
+    int[] pasos;
+    /* Número de eventos. */
+    int eventos;
+    /* El paso actual. */
+    int paso;
+    /* La gráfica que llenó la bitácora. */
+    Object grafica;
+    /* La versión de la gráfica al llenarla. */
+    int version;
+
+    /**
+     * Construye una bitácora vacía.
+     */
+    public BitacoraRecorrido() {
+        tipos = new int[64];
+        vertices = new int[64];
+        origenes = new int[64];
+        pasos = new int[64];
+    }
+
+    /**
+     * Regresa el número de eventos en la bitácora.
+     * @return el número de eventos en la bitácora.
+     */
+    public int getEventos() {
+        return eventos;
+    }
+
+    /**
+     * Regresa el número de pasos en la bitácora; cada vértice
+     * visitado y cada vértice de la trayectoria final es un paso.
+     * @return el número de pasos en la bitácora.
+     */
+    public int getPasos() {
+        return paso;
+    }
+
+    /**
+     * Limpia la bitácora.
+     */
+    public void limpia() {
+        eventos = paso = 0;
+        grafica = null;
+    }
+
+    /* Empieza a registrar un recorrido en la versión de la gráfica;
+     * si era de otra gráfica u otra versión, se limpia. */
+    void empieza(Object grafica, int version) {
+        if (this.grafica != grafica || this.version != version)
+            limpia();
+        this.grafica = grafica;
+        this.version = version;
+    }
+
+    /* Registra un evento en el paso actual. */
+    void registra(int tipo, int vertice, int origen) {
+        if (eventos == tipos.length) {
+            int n = 2 * eventos;
+            tipos = Arrays.copyOf(tipos, n);
+            vertices = Arrays.copyOf(vertices, n);
+            origenes = Arrays.copyOf(origenes, n);
+            pasos = Arrays.copyOf(pasos, n);
+        }
+        tipos[eventos] = tipo;
+        vertices[eventos] = vertice;
+        origenes[eventos] = origen;
+        pasos[eventos++] = paso;
+    }
+
+    /* Registra un evento y avanza al siguiente paso. */
+    void registraPaso(int tipo, int vertice, int origen) {
+        registra(tipo, vertice, origen);
+        paso++;
+    }
+}
@@ -0,0 +1,427 @@
+package mx.unam.ciencias.edd;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p>Clase para cargar gráficas desde listas de aristas en texto.</p>
+ *
+ * <p>Cada línea del archivo tiene la forma <tt>a b peso</tt>, donde
+ * <tt>a</tt> y <tt>b</tt> son enteros y el peso es opcional (si no
+ * está, vale 1). Las líneas vacías y las que empiezan con
+ * <tt>#</tt> se ignoran.</p>
+ *
+ * <p>El archivo se mapea a memoria por pedazos que terminan en fin
+ * de línea; los pedazos se analizan en paralelo, sin crear cadenas,
+ * y sus aristas se agregan a la gráfica en lote, en el orden del
+ * archivo:</p>
+ *
+<pre>
+    CargadorAristas cargador = new CargadorAristas(8);
+    cargador.setOmiteRepetidas(true);
+    Grafica&lt;Integer&gt; g = cargador.carga(archivo);
+    System.out.println(cargador.getAristasPorSegundo());
+</pre>
+ */
+public class CargadorAristas {
+
+    /* Aristas de un pedazo del archivo. */
+    private static class Pedazo {
+
+        /* Primeros extremos. */
+        public int[] a;
+        /* Segundos extremos. */
+        public int[] b;
+        /* Pesos. */
+        public double[] pesos;
+        /* Número de aristas. */
+        public int n;
+
+        /* Crea un pedazo con la capacidad recibida. */
+        public Pedazo(int capacidad) {
+            a = new int[capacidad];
+            b = new int[capacidad];
+            pesos = new double[capacidad];
+        }
+
+        /* Agrega una arista, creciendo los arreglos si es necesario. */
+        public void agrega(int x, int y, double peso) {
+            if (n == a.length) {
+                int c = 2 * n;
+                a = Arrays.copyOf(a, c);
+                b = Arrays.copyOf(b, c);
+                pesos = Arrays.copyOf(pesos, c);
+            }
+            a[n] = x;
+            b[n] = y;
+            pesos[n++] = peso;
+        }
+    }
+
+    /* Analizador de un pedazo del archivo. */
+    private static class Analizador implements Callable<Pedazo> {
+
+        /* Los bytes del pedazo. */
+        private ByteBuffer bytes;
+        /* Posición actual. */
+        private int p;
+        /* Fin del pedazo. */
+        private int fin;
+        /* Inicio del pedazo en el archivo, para los errores. */
+        private long base;
+
+        /* Crea un analizador para los bytes recibidos. */
+        public Analizador(ByteBuffer bytes, long base) {
+            this.bytes = bytes;
+            this.base = base;
+            fin = bytes.limit();
+        }
+
+        /* Analiza todas las líneas del pedazo. */
+        @Override public Pedazo call() {
+            Pedazo pedazo = new Pedazo(Math.max(16, fin / 16));
+            while (p < fin) {
+                saltaEspacios();
+                if (p == fin)
+                    break;
+                byte c = bytes.get(p);
+                if (c == '\n' || c == '#') {
+                    saltaLinea();
+                    continue;
+                }
+                int a = entero();
+                saltaEspacios();
+                int b = entero();
+                saltaEspacios();
+                double peso = 1;
+                if (p < fin && bytes.get(p) != '\n')
+                    peso = real();
+                saltaEspacios();
+                if (p < fin && bytes.get(p) != '\n')
+                    throw error();
+                saltaLinea();
+                pedazo.agrega(a, b, peso);
+            }
+            return pedazo;
+        }
+
+        /* Salta espacios, tabuladores y retornos de carro. */
+        private void saltaEspacios() {
+            while (p < fin) {
+                byte c = bytes.get(p);
+                if (c != ' ' && c != '\t' && c != '\r')
+                    return;
+                p++;
+            }
+        }
+
+        /* Salta hasta después del siguiente fin de línea. */
+        private void saltaLinea() {
+            while (p < fin && bytes.get(p++) != '\n')
+                ;
+        }
+
+        /* Lee un entero con signo opcional. */
+        private int entero() {
+            boolean negativo = signo();
+            if (p == fin || !digito(bytes.get(p)))
+                throw error();
+            long r = 0;
+            while (p < fin && digito(bytes.get(p))) {
+                r = 10 * r + (bytes.get(p++) - '0');
+                if (r > (long)Integer.MAX_VALUE + 1)
+                    throw error();
+            }
+            r = negativo ? -r : r;
+            if (r > Integer.MAX_VALUE)
+                throw error();
+            return (int)r;
+        }
+
+        /* Lee un real con signo, parte fraccionaria y exponente
+         * opcionales. El analizador de bytes sólo encuentra los
+         * límites del número; el valor lo calcula Double.parseDouble,
+         * que redondea una sola vez. */
+        private double real() {
+            int inicio = p;
+            signo();
+            boolean hayDigitos = digitos();
+            if (p < fin && bytes.get(p) == '.') {
+                p++;
+                hayDigitos |= digitos();
+            }
+            if (!hayDigitos)
+                throw error();
+            if (p < fin && (bytes.get(p) == 'e' || bytes.get(p) == 'E')) {
+                p++;
+                signo();
+                if (!digitos())
+                    throw error();
+            }
+            StringBuilder sb = new StringBuilder(p - inicio);
+            for (int i = inicio; i < p; i++)
+                sb.append((char)bytes.get(i));
+            return Double.parseDouble(sb.toString());
+        }
+
+        /* Consume dígitos; regresa si había al menos uno. */
+        private boolean digitos() {
+            int inicio = p;
+            while (p < fin && digito(bytes.get(p)))
+                p++;
+            return p > inicio;
+        }
+
+        /* Consume un signo, si lo hay; regresa si era negativo. */
+        private boolean signo() {
+            if (p < fin && (bytes.get(p) == '-' || bytes.get(p) == '+'))
+                return bytes.get(p++) == '-';
+            return false;
+        }
+
+        /* Nos dice si el byte es un dígito. */
+        private boolean digito(byte c) {
+            return c >= '0' && c <= '9';
+        }
+
+        /* Crea la excepción para una línea mal formada. */
+        private IllegalArgumentException error() {
+            return new IllegalArgumentException("Línea mal formada cerca " +
+                                                "del byte " + (base + p));
+        }
+    }
+
+    /* Tamaño objetivo de los pedazos: 32 MiB. */
+    private static final int PEDAZO = 1 << 25;
+
+    /* Número de hilos para analizar. */
+    private int hilos;
+    /* Si las aristas repetidas se omiten en lugar de rechazarse. */
+    private boolean omiteRepetidas;
+    /* Bytes leídos en la última carga. */
+    private long bytesLeidos;
+    /* Aristas leídas en la última carga. */
+    private long aristasLeidas;
+    /* Aristas omitidas en la última carga. */
+    private long aristasOmitidas;
+    /* Duración de la última carga, en nanosegundos. */
+    private long nanosegundos;
+
+    /**
+     * Construye un cargador que usa tantos hilos como procesadores
+     * disponibles.
+     */
+    public CargadorAristas() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Construye un cargador que usa el número de hilos recibido.
+     * @param hilos el número de hilos para analizar el archivo.
+     * @throws IllegalArgumentException si el número de hilos es menor
+     *         que uno.
+     */
+    public CargadorAristas(int hilos) {
+        if (hilos < 1)
+            throw new IllegalArgumentException();
+        this.hilos = hilos;
+    }
+
+    /**
+     * Define qué hacer con las aristas repetidas y los lazos. Si se
+     * omiten, se cuentan en {@link #getAristasOmitidas}; si no, la
+     * carga lanza {@link IllegalArgumentException} como lo haría
+     * {@link Grafica#conecta}. Por omisión se rechazan.
+     * @param omiteRepetidas si las aristas repetidas se omiten.
+     */
+    public void setOmiteRepetidas(boolean omiteRepetidas) {
+        this.omiteRepetidas = omiteRepetidas;
+    }
+
+    /**
+     * Carga una gráfica nueva desde el archivo recibido.
+     * @param archivo el archivo con la lista de aristas.
+     * @return la gráfica con las aristas del archivo.
+     * @throws IOException si ocurre un error al leer.
+     * @throws IllegalArgumentException si alguna línea está mal
+     *         formada, o si hay aristas repetidas y no se omiten.
+     */
+    public Grafica<Integer> carga(File archivo) throws IOException {
+        Grafica<Integer> grafica = new Grafica<Integer>();
+        carga(archivo, grafica);
+        return grafica;
+    }
+
+    /**
+     * Agrega las aristas del archivo recibido a una gráfica. Los
+     * elementos que no estén en la gráfica se agregan.
+     * @param archivo el archivo con la lista de aristas.
+     * @param grafica la gráfica donde se agregarán las aristas.
+     * @throws IOException si ocurre un error al leer.
+     * @throws IllegalArgumentException si alguna línea está mal
+     *         formada, o si hay aristas repetidas y no se omiten.
+     */
+    public void carga(File archivo, Grafica<Integer> grafica)
+        throws IOException {
+        long inicio = System.nanoTime();
+        bytesLeidos = aristasLeidas = aristasOmitidas = 0;
+        RandomAccessFile raf = new RandomAccessFile(archivo, "r");
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        try {
+            FileChannel canal = raf.getChannel();
+            long[] cortes = cortes(canal);
+            int k = cortes.length - 1;
+            @SuppressWarnings("unchecked") Future<Pedazo>[] futuros =
+                (Future<Pedazo>[])new Future<?>[k];
+            /* Sólo analizamos por adelantado unos cuantos pedazos, para
+             * no acumular en memoria el archivo completo. */
+            int adelanto = 2 * hilos;
+            for (int i = 0; i < k && i < adelanto; i++)
+                futuros[i] = envia(ejecutor, canal, cortes, i);
+            /* Agregamos en orden mientras se analizan los pedazos
+             * siguientes. */
+            for (int i = 0; i < k; i++) {
+                Pedazo pedazo = espera(futuros[i]);
+                futuros[i] = null;
+                if (i + adelanto < k)
+                    futuros[i + adelanto] = envia(ejecutor, canal, cortes,
+                                                  i + adelanto);
+                Integer[] a = new Integer[pedazo.n], b = new Integer[pedazo.n];
+                for (int j = 0; j < pedazo.n; j++) {
+                    a[j] = pedazo.a[j];
+                    b[j] = pedazo.b[j];
+                }
+                aristasOmitidas += grafica.conectaLote(a, b, pedazo.pesos,
+                                                      pedazo.n, omiteRepetidas);
+                aristasLeidas += pedazo.n;
+            }
+            bytesLeidos = canal.size();
+        } finally {
+            ejecutor.shutdownNow();
+            raf.close();
+            nanosegundos = System.nanoTime() - inicio;
+        }
+    }
+
+    /* Mapea el i-ésimo pedazo y lo manda analizar. */
+    private Future<Pedazo> envia(ExecutorService ejecutor, FileChannel canal,
+                                 long[] cortes, int i) throws IOException {
+        MappedByteBuffer bytes = canal.map(FileChannel.MapMode.READ_ONLY,
+                                           cortes[i], cortes[i+1] - cortes[i]);
+        return ejecutor.submit(new Analizador(bytes, cortes[i]));
+    }
+
+    /* Espera el resultado de un pedazo, propagando sus excepciones. */
+    private Pedazo espera(Future<Pedazo> futuro) throws IOException {
+        try {
+            return futuro.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ie);
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof RuntimeException)
+                throw (RuntimeException)ee.getCause();
+            throw new IOException(ee.getCause());
+        }
+    }
+
+    /* Calcula los cortes del archivo en pedazos que terminan en fin
+     * de línea. */
+    private long[] cortes(FileChannel canal) throws IOException {
+        long tamano = canal.size();
+        /* Un archivo vacío no tiene pedazos. */
+        if (tamano == 0)
+            return new long[] { 0 };
+        long objetivo = Math.max(1, Math.min(PEDAZO, tamano / hilos + 1));
+        int k = (int)((tamano + objetivo - 1) / objetivo);
+        long[] cortes = new long[k + 1];
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 12);
+        int c = 1;
+        for (int i = 1; i < k; i++) {
+            long p = Math.max(i * objetivo, cortes[c-1]);
+            p = finDeLinea(canal, p, buffer);
+            if (p < tamano && p > cortes[c-1])
+                cortes[c++] = p;
+        }
+        cortes[c++] = tamano;
+        return Arrays.copyOf(cortes, c);
+    }
+
+    /* Regresa la posición después del primer fin de línea a partir
+     * de p, o el tamaño del archivo si no hay. */
+    private long finDeLinea(FileChannel canal, long p, ByteBuffer buffer)
+        throws IOException {
+        while (true) {
+            buffer.clear();
+            int leidos = canal.read(buffer, p);
+            if (leidos <= 0)
+                return canal.size();
+            for (int i = 0; i < leidos; i++)
+                if (buffer.get(i) == '\n')
+                    return p + i + 1;
+            p += leidos;
+        }
+    }
+
+    /**
+     * Regresa el número de bytes leídos en la última carga.
+     * @return el número de bytes leídos en la última carga.
+     */
+    public long getBytes() {
+        return bytesLeidos;
+    }
+
+    /**
+     * Regresa el número de aristas leídas en la última carga,
+     * incluyendo las omitidas.
+     * @return el número de aristas leídas en la última carga.
+     */
+    public long getAristas() {
+        return aristasLeidas;
+    }
+
+    /**
+     * Regresa el número de aristas repetidas o lazos omitidos en la
+     * última carga.
+     * @return el número de aristas omitidas en la última carga.
+     */
+    public long getAristasOmitidas() {
+        return aristasOmitidas;
+    }
+
+    /**
+     * Regresa la duración de la última carga en segundos.
+     * @return la duración de la última carga en segundos.
+     */
+    public double getSegundos() {
+        return nanosegundos / 1e9;
+    }
+
+    /**
+     * Regresa el rendimiento de la última carga en aristas por
+     * segundo.
+     * @return las aristas leídas por segundo.
+     */
+    public double getAristasPorSegundo() {
+        return aristasLeidas / getSegundos();
+    }
+
+    /**
+     * Regresa el rendimiento de la última carga en megabytes por
+     * segundo.
+     * @return los megabytes leídos por segundo.
+     */
+    public double getMegabytesPorSegundo() {
+        return bytesLeidos / (1024.0 * 1024.0) / getSegundos();
+    }
+}
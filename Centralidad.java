@@ -0,0 +1,263 @@
+package mx.unam.ciencias.edd;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p>Clase para calcular la centralidad de los vértices de una
+ * {@link Grafica}.</p>
+ *
+ * <p>Se puede calcular la centralidad de grado y el PageRank. El
+ * PageRank se calcula con el método de la potencia sobre la forma
+ * compacta de la gráfica, repartiendo los vértices entre varios
+ * hilos. Los puntajes se regresan en un {@link Diccionario} que puede
+ * pasarse a {@link Grafica#generaScalableVectorGraphics(Diccionario)}
+ * para dibujar más grandes a los vértices más importantes:</p>
+ *
+<pre>
+    Centralidad&lt;String&gt; c = new Centralidad&lt;String&gt;(g);
+    c.setHilos(8);
+    c.setTolerancia(1e-9);
+    String svg = g.generaScalableVectorGraphics(c.pageRank());
+</pre>
+ */
+public class Centralidad<T> {
+
+    /* Trabajo de una iteración del método de la potencia sobre un
+     * rango de vértices. */
+    private class Iteracion implements Callable<double[]> {
+
+        /* El primer vértice del rango. */
+        private int inicio;
+        /* El vértice después del último del rango. */
+        private int fin;
+
+        /* Crea el trabajo para el rango [inicio, fin). */
+        public Iteracion(int inicio, int fin) {
+            this.inicio = inicio;
+            this.fin = fin;
+        }
+
+        /* Calcula el nuevo rango de los vértices; regresa la
+         * diferencia L1 con el anterior y la masa que queda en
+         * vértices sin vecinos. */
+        @Override public double[] call() {
+            double diferencia = 0, colgante = 0;
+            for (int i = inicio; i < fin; i++) {
+                double suma = 0;
+                for (int k = csr.inicio[i]; k < csr.inicio[i+1]; k++)
+                    suma += aporte[csr.vecinos[k]];
+                double r = base + amortiguamiento * suma;
+                diferencia += Math.abs(r - rango[i]);
+                nuevo[i] = r;
+                int grado = csr.getGrado(i);
+                if (grado == 0)
+                    colgante += r;
+                else
+                    siguienteAporte[i] = r / grado;
+            }
+            return new double[] { diferencia, colgante };
+        }
+    }
+
+    /* La gráfica. */
+    private Grafica<T> grafica;
+    /* Número de hilos. */
+    private int hilos;
+    /* Tolerancia de convergencia. */
+    private double tolerancia;
+    /* Factor de amortiguamiento. */
+    private double amortiguamiento;
+    /* Máximo de iteraciones. */
+    private int maximoIteraciones;
+    /* Iteraciones del último cálculo de PageRank. */
+    private int iteraciones;
+
+    /* Estado del cálculo de PageRank. */
+    private AdyacenciaCompacta<T> csr;
+    private double[] rango, nuevo, aporte, siguienteAporte;
+    private double base;
+
+    /**
+     * Construye un calculador de centralidad para la gráfica
+     * recibida, con tantos hilos como procesadores, tolerancia
+     * 10<sup>-6</sup>, amortiguamiento 0.85 y a lo más 100
+     * iteraciones.
+     * @param grafica la gráfica.
+     * @throws IllegalArgumentException si la gráfica es dirigida.
+     */
+    public Centralidad(Grafica<T> grafica) {
+        if (grafica.esDirigida())
+            throw new IllegalArgumentException();
+        this.grafica = grafica;
+        hilos = Runtime.getRuntime().availableProcessors();
+        tolerancia = 1e-6;
+        amortiguamiento = 0.85;
+        maximoIteraciones = 100;
+    }
+
+    /**
+     * Define el número de hilos para PageRank.
+     * @param hilos el número de hilos.
+     * @throws IllegalArgumentException si es menor que uno.
+     */
+    public void setHilos(int hilos) {
+        if (hilos < 1)
+            throw new IllegalArgumentException();
+        this.hilos = hilos;
+    }
+
+    /**
+     * Define la tolerancia de convergencia de PageRank: el cálculo
+     * termina cuando la suma de los cambios absolutos de todos los
+     * vértices en una iteración es menor que la tolerancia.
+     * @param tolerancia la tolerancia.
+     * @throws IllegalArgumentException si no es positiva.
+     */
+    public void setTolerancia(double tolerancia) {
+        if (!(tolerancia > 0))
+            throw new IllegalArgumentException();
+        this.tolerancia = tolerancia;
+    }
+
+    /**
+     * Define el factor de amortiguamiento de PageRank.
+     * @param amortiguamiento el factor, entre 0 y 1.
+     * @throws IllegalArgumentException si no está entre 0 y 1.
+     */
+    public void setAmortiguamiento(double amortiguamiento) {
+        if (!(amortiguamiento >= 0 && amortiguamiento <= 1))
+            throw new IllegalArgumentException();
+        this.amortiguamiento = amortiguamiento;
+    }
+
+    /**
+     * Define el máximo de iteraciones de PageRank.
+     * @param maximo el máximo de iteraciones.
+     * @throws IllegalArgumentException si es menor que uno.
+     */
+    public void setMaximoIteraciones(int maximo) {
+        if (maximo < 1)
+            throw new IllegalArgumentException();
+        maximoIteraciones = maximo;
+    }
+
+    /**
+     * Regresa cuántas iteraciones hizo el último cálculo de
+     * PageRank.
+     * @return las iteraciones del último cálculo de PageRank.
+     */
+    public int getIteraciones() {
+        return iteraciones;
+    }
+
+    /**
+     * Calcula la centralidad de grado de cada vértice: su grado
+     * entre el número de vértices menos uno.
+     * @return un diccionario con la centralidad de cada elemento.
+     */
+    public Diccionario<T, Double> grado() {
+        AdyacenciaCompacta<T> csr = grafica.compacta();
+        int n = csr.getVertices();
+        Diccionario<T, Double> puntajes = new Diccionario<T, Double>();
+        for (int i = 0; i < n; i++)
+            puntajes.agrega(csr.getElemento(i),
+                            n > 1 ? csr.getGrado(i) / (n - 1.0) : 0.0);
+        return puntajes;
+    }
+
+    /**
+     * Calcula el PageRank de cada vértice. Cada arista cuenta en
+     * ambas direcciones, y el rango de los vértices sin vecinos se
+     * reparte entre todos. Los puntajes suman 1.
+     * @return un diccionario con el PageRank de cada elemento.
+     */
+    public Diccionario<T, Double> pageRank() {
+        csr = grafica.compacta();
+        int n = csr.getVertices();
+        Diccionario<T, Double> puntajes = new Diccionario<T, Double>();
+        if (n == 0)
+            return puntajes;
+        rango = new double[n];
+        nuevo = new double[n];
+        aporte = new double[n];
+        siguienteAporte = new double[n];
+        double colgante = 0;
+        for (int i = 0; i < n; i++) {
+            rango[i] = 1.0 / n;
+            if (csr.getGrado(i) == 0)
+                colgante += rango[i];
+            else
+                aporte[i] = rango[i] / csr.getGrado(i);
+        }
+        int[] cortes = cortes();
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        try {
+            @SuppressWarnings("unchecked") Future<double[]>[] futuros =
+                (Future<double[]>[])new Future<?>[cortes.length - 1];
+            for (iteraciones = 1; iteraciones <= maximoIteraciones;
+                 iteraciones++) {
+                base = (1 - amortiguamiento) / n +
+                    amortiguamiento * colgante / n;
+                for (int t = 0; t < futuros.length; t++)
+                    futuros[t] = ejecutor.submit(new Iteracion(cortes[t],
+                                                               cortes[t+1]));
+                double diferencia = 0;
+                colgante = 0;
+                for (Future<double[]> f : futuros) {
+                    double[] r = espera(f);
+                    diferencia += r[0];
+                    colgante += r[1];
+                }
+                double[] t = rango; rango = nuevo; nuevo = t;
+                t = aporte; aporte = siguienteAporte; siguienteAporte = t;
+                if (diferencia < tolerancia)
+                    break;
+            }
+            iteraciones = Math.min(iteraciones, maximoIteraciones);
+        } finally {
+            ejecutor.shutdownNow();
+        }
+        for (int i = 0; i < n; i++)
+            puntajes.agrega(csr.getElemento(i), rango[i]);
+        csr = null;
+        rango = nuevo = aporte = siguienteAporte = null;
+        return puntajes;
+    }
+
+    /* Reparte los vértices en rangos con aproximadamente el mismo
+     * número de aristas. */
+    private int[] cortes() {
+        int n = csr.getVertices();
+        int partes = Math.min(hilos, n);
+        int[] cortes = new int[partes + 1];
+        long total = csr.inicio[n] + n;
+        int i = 0;
+        for (int t = 1; t < partes; t++) {
+            long objetivo = total * t / partes;
+            while (i < n && csr.inicio[i] + i < objetivo)
+                i++;
+            cortes[t] = Math.max(i, cortes[t-1]);
+        }
+        cortes[partes] = n;
+        return cortes;
+    }
+
+    /* Espera el resultado de un trabajo, propagando sus
+     * excepciones. */
+    private double[] espera(Future<double[]> futuro) {
+        try {
+            return futuro.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ie);
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof RuntimeException)
+                throw (RuntimeException)ee.getCause();
+            throw new IllegalStateException(ee.getCause());
+        }
+    }
+}
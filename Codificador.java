@@ -0,0 +1,55 @@
+package mx.unam.ciencias.edd;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Interfaz para codificar elementos como bytes, y para decodificarlos
+ * de vuelta. La usa {@link InstantaneaGrafica} para guardar los
+ * elementos de una gráfica en disco.
+ */
+public interface Codificador<T> {
+
+    /**
+     * Codificador para enteros, de cuatro bytes cada uno.
+     */
+    public static final Codificador<Integer> ENTEROS =
+        new Codificador<Integer>() {
+            @Override public byte[] codifica(Integer elemento) {
+                return ByteBuffer.allocate(4).putInt(elemento).array();
+            }
+            @Override public Integer decodifica(ByteBuffer bytes) {
+                return bytes.getInt(bytes.position());
+            }
+        };
+
+    /**
+     * Codificador para cadenas, en UTF-8.
+     */
+    public static final Codificador<String> CADENAS =
+        new Codificador<String>() {
+            private final Charset utf8 = Charset.forName("UTF-8");
+            @Override public byte[] codifica(String elemento) {
+                return elemento.getBytes(utf8);
+            }
+            @Override public String decodifica(ByteBuffer bytes) {
+                return utf8.decode(bytes).toString();
+            }
+        };
+
+    /**
+     * Codifica un elemento.
+     * @param elemento el elemento a codificar.
+     * @return los bytes que representan al elemento.
+     */
+    public byte[] codifica(T elemento);
+
+    /**
+     * Decodifica un elemento. El buffer recibido contiene
+     * exactamente los bytes del elemento, entre su posición y su
+     * límite.
+     * @param bytes los bytes del elemento.
+     * @return el elemento decodificado.
+     */
+    public T decodifica(ByteBuffer bytes);
+}
@@ -0,0 +1,392 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p>Clase para detectar comunidades en una {@link Grafica} por
+ * propagación de etiquetas, y para resumir la gráfica colapsando cada
+ * comunidad en un supernodo.</p>
+ *
+ * <p>Cada vértice empieza con su propia etiqueta, y en cada ronda
+ * adopta la etiqueta con mayor peso total entre sus vecinos. Las
+ * rondas se reparten entre varios hilos que actualizan las etiquetas
+ * en el mismo arreglo, así que el resultado puede variar entre
+ * ejecuciones con más de un hilo. Cada hilo acumula pesos en un
+ * arreglo indexado por etiqueta, y como las etiquetas son índices de
+ * vértices, ese arreglo tiene un lugar por vértice: la memoria
+ * adicional es proporcional al número de vértices por el número de
+ * hilos.</p>
+ *
+ * <p>La gráfica resumida tiene un vértice por comunidad, y una arista
+ * entre dos comunidades cuyo peso es la suma de los pesos de las
+ * aristas que las conectan; dibujarla cuesta lo proporcional al
+ * número de comunidades:</p>
+ *
+<pre>
+    Comunidades&lt;String&gt; c = new Comunidades&lt;String&gt;(g);
+    String resumen = c.resumen().generaScalableVectorGraphics();
+    String detalle = c.subgrafica(3).generaScalableVectorGraphics();
+</pre>
+ */
+public class Comunidades<T> {
+
+    /**
+     * Clase para los vértices de la gráfica resumida.
+     */
+    public static class Supernodo {
+
+        /* El identificador de la comunidad. */
+        private int id;
+        /* El número de vértices en la comunidad. */
+        private int tamano;
+
+        /* Crea un supernodo para la comunidad. */
+        private Supernodo(int id, int tamano) {
+            this.id = id;
+            this.tamano = tamano;
+        }
+
+        /**
+         * Regresa el identificador de la comunidad.
+         * @return el identificador de la comunidad.
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * Regresa el número de vértices en la comunidad.
+         * @return el número de vértices en la comunidad.
+         */
+        public int getTamano() {
+            return tamano;
+        }
+
+        /**
+         * Nos dice si el objeto es un supernodo de la misma
+         * comunidad.
+         * @param o el objeto con el que hay que comparar.
+         * @return <tt>true</tt> si el objeto es un supernodo con el
+         *         mismo identificador, <tt>false</tt> en otro caso.
+         */
+        @Override public boolean equals(Object o) {
+            return o instanceof Supernodo && ((Supernodo)o).id == id;
+        }
+
+        /**
+         * Regresa el código hash del supernodo.
+         * @return el identificador de la comunidad.
+         */
+        @Override public int hashCode() {
+            return id;
+        }
+
+        /**
+         * Regresa una representación en cadena del supernodo.
+         * @return el identificador y el tamaño de la comunidad.
+         */
+        @Override public String toString() {
+            return id + " (" + tamano + ")";
+        }
+    }
+
+    /* Una ronda de propagación sobre un rango de vértices. */
+    private class Ronda implements Callable<Integer> {
+
+        /* El primer vértice del rango. */
+        private int inicio;
+        /* El vértice después del último del rango. */
+        private int fin;
+        /* Peso acumulado por etiqueta; las etiquetas de los vecinos
+         * pueden ser cualquier vértice, así que hay un lugar por
+         * vértice. */
+        private double[] peso;
+        /* Etiquetas con peso acumulado, para limpiarlas. */
+        private int[] tocadas;
+
+        /* Crea la ronda para el rango [inicio, fin). */
+        public Ronda(int inicio, int fin) {
+            this.inicio = inicio;
+            this.fin = fin;
+            peso = new double[csr.getVertices()];
+            tocadas = new int[16];
+        }
+
+        /* Actualiza las etiquetas del rango; regresa cuántas
+         * cambiaron. */
+        @Override public Integer call() {
+            int cambios = 0;
+            for (int i = inicio; i < fin; i++) {
+                int grado = csr.getGrado(i);
+                if (grado == 0)
+                    continue;
+                if (tocadas.length < grado)
+                    tocadas = new int[grado];
+                int t = 0;
+                for (int k = csr.inicio[i]; k < csr.inicio[i+1]; k++) {
+                    int e = etiqueta[csr.vecinos[k]];
+                    if (peso[e] == 0)
+                        tocadas[t++] = e;
+                    peso[e] += csr.pesos[k];
+                }
+                /* Nos quedamos con la actual si empata con la mejor;
+                 * si no, con la menor de las mejores. */
+                int actual = etiqueta[i], mejor = actual;
+                double maximo = peso[actual];
+                for (int j = 0; j < t; j++) {
+                    int e = tocadas[j];
+                    if (peso[e] > maximo ||
+                        (peso[e] == maximo && mejor != actual && e < mejor)) {
+                        maximo = peso[e];
+                        mejor = e;
+                    }
+                    peso[e] = 0;
+                }
+                if (mejor != actual) {
+                    etiqueta[i] = mejor;
+                    cambios++;
+                }
+            }
+            return cambios;
+        }
+    }
+
+    /* La gráfica. */
+    private Grafica<T> grafica;
+    /* Número de hilos. */
+    private int hilos;
+    /* Máximo de rondas. */
+    private int maximoRondas;
+    /* La forma compacta de la gráfica. */
+    private AdyacenciaCompacta<T> csr;
+    /* La etiqueta de cada vértice. */
+    private int[] etiqueta;
+    /* El número de comunidades. */
+    private int comunidades;
+    /* El tamaño de cada comunidad. */
+    private int[] tamanos;
+    /* Los vértices agrupados por comunidad. */
+    private int[] porComunidad;
+    /* Dónde empieza cada comunidad en porComunidad. */
+    private int[] inicioComunidad;
+    /* La comunidad de cada elemento. */
+    private Diccionario<T, Integer> comunidad;
+
+    /**
+     * Construye el detector para la gráfica recibida, con tantos
+     * hilos como procesadores y a lo más 50 rondas. Las comunidades
+     * se calculan al pedirlas por primera vez.
+     * @param grafica la gráfica.
+     * @throws IllegalArgumentException si la gráfica es dirigida.
+     */
+    public Comunidades(Grafica<T> grafica) {
+        if (grafica.esDirigida())
+            throw new IllegalArgumentException();
+        this.grafica = grafica;
+        hilos = Runtime.getRuntime().availableProcessors();
+        maximoRondas = 50;
+    }
+
+    /**
+     * Define el número de hilos.
+     * @param hilos el número de hilos.
+     * @throws IllegalArgumentException si es menor que uno.
+     */
+    public void setHilos(int hilos) {
+        if (hilos < 1)
+            throw new IllegalArgumentException();
+        this.hilos = hilos;
+        csr = null;
+    }
+
+    /**
+     * Define el máximo de rondas de propagación.
+     * @param maximo el máximo de rondas.
+     * @throws IllegalArgumentException si es menor que uno.
+     */
+    public void setMaximoRondas(int maximo) {
+        if (maximo < 1)
+            throw new IllegalArgumentException();
+        maximoRondas = maximo;
+        csr = null;
+    }
+
+    /**
+     * Regresa el número de comunidades.
+     * @return el número de comunidades.
+     */
+    public int getComunidades() {
+        calcula();
+        return comunidades;
+    }
+
+    /**
+     * Regresa la comunidad del elemento, entre 0 y el número de
+     * comunidades menos uno.
+     * @param elemento el elemento.
+     * @return la comunidad del elemento.
+     * @throws NoSuchElementException si el elemento no estaba en la
+     *         gráfica al calcular las comunidades.
+     */
+    public int getComunidad(T elemento) {
+        calcula();
+        return comunidad.get(elemento);
+    }
+
+    /**
+     * Regresa la gráfica resumida: un {@link Supernodo} por comunidad,
+     * conectados si hay aristas entre sus comunidades, con la suma de
+     * sus pesos. Las aristas dentro de una comunidad no aparecen.
+     * @return la gráfica resumida.
+     */
+    public Grafica<Supernodo> resumen() {
+        calcula();
+        Supernodo[] supernodos = new Supernodo[comunidades];
+        Grafica<Supernodo> resumen = new Grafica<Supernodo>();
+        for (int c = 0; c < comunidades; c++) {
+            supernodos[c] = new Supernodo(c, tamanos[c]);
+            resumen.agrega(supernodos[c]);
+        }
+        /* Acumulamos los pesos por par de comunidades, en el orden en
+         * que aparecen. */
+        Diccionario<Long, Integer> pares = new Diccionario<Long, Integer>();
+        Lista<Long> orden = new Lista<Long>();
+        double[] pesos = new double[16];
+        for (int i = 0; i < csr.getVertices(); i++) {
+            for (int k = csr.inicio[i]; k < csr.inicio[i+1]; k++) {
+                int j = csr.vecinos[k];
+                int a = etiqueta[i], b = etiqueta[j];
+                if (j < i || a == b)
+                    continue;
+                long par = a < b ? ((long)a << 32) | b : ((long)b << 32) | a;
+                if (!pares.contiene(par)) {
+                    if (orden.getLongitud() == pesos.length)
+                        pesos = Arrays.copyOf(pesos, 2 * pesos.length);
+                    pares.agrega(par, orden.getLongitud());
+                    orden.agregaFinal(par);
+                }
+                pesos[pares.get(par)] += csr.pesos[k];
+            }
+        }
+        int m = orden.getLongitud();
+        Supernodo[] a = new Supernodo[m], b = new Supernodo[m];
+        int i = 0;
+        for (long par : orden) {
+            a[i] = supernodos[(int)(par >>> 32)];
+            b[i++] = supernodos[(int)par];
+        }
+        resumen.conectaLote(a, b, pesos, m, false);
+        return resumen;
+    }
+
+    /**
+     * Regresa la subgráfica inducida por una comunidad, para ver su
+     * detalle. Su costo es proporcional a los vértices de la
+     * comunidad y a sus aristas, incluidas las que salen de ella.
+     * @param id la comunidad.
+     * @return la subgráfica con los elementos de la comunidad y las
+     *         aristas entre ellos.
+     * @throws ExcepcionIndiceInvalido si la comunidad no existe.
+     */
+    public Grafica<T> subgrafica(int id) {
+        calcula();
+        if (id < 0 || id >= comunidades)
+            throw new ExcepcionIndiceInvalido();
+        Grafica<T> sub = new Grafica<T>();
+        for (int l = inicioComunidad[id]; l < inicioComunidad[id+1]; l++)
+            sub.agrega(csr.getElemento(porComunidad[l]));
+        for (int l = inicioComunidad[id]; l < inicioComunidad[id+1]; l++) {
+            int i = porComunidad[l];
+            for (int k = csr.inicio[i]; k < csr.inicio[i+1]; k++) {
+                int j = csr.vecinos[k];
+                if (j > i && etiqueta[j] == id)
+                    sub.conecta(csr.getElemento(i), csr.getElemento(j),
+                                csr.pesos[k]);
+            }
+        }
+        return sub;
+    }
+
+    /* Calcula las comunidades, si no se han calculado. */
+    private void calcula() {
+        if (csr != null)
+            return;
+        csr = grafica.compacta();
+        int n = csr.getVertices();
+        etiqueta = new int[n];
+        for (int i = 0; i < n; i++)
+            etiqueta[i] = i;
+        if (n > 0)
+            propaga();
+        /* Renumeramos las etiquetas en orden de aparición. */
+        int[] nueva = new int[n];
+        for (int i = 0; i < n; i++)
+            nueva[i] = -1;
+        comunidades = 0;
+        for (int i = 0; i < n; i++) {
+            if (nueva[etiqueta[i]] == -1)
+                nueva[etiqueta[i]] = comunidades++;
+            etiqueta[i] = nueva[etiqueta[i]];
+        }
+        tamanos = new int[comunidades];
+        comunidad = new Diccionario<T, Integer>();
+        for (int i = 0; i < n; i++) {
+            tamanos[etiqueta[i]]++;
+            comunidad.agrega(csr.getElemento(i), etiqueta[i]);
+        }
+        /* Agrupamos los vértices por comunidad, como en Particion. */
+        inicioComunidad = new int[comunidades + 1];
+        for (int c = 0; c < comunidades; c++)
+            inicioComunidad[c+1] = inicioComunidad[c] + tamanos[c];
+        porComunidad = new int[n];
+        int[] siguiente = inicioComunidad.clone();
+        for (int i = 0; i < n; i++)
+            porComunidad[siguiente[etiqueta[i]]++] = i;
+    }
+
+    /* Hace rondas de propagación hasta que nada cambie. */
+    private void propaga() {
+        int n = csr.getVertices();
+        int partes = Math.min(hilos, n);
+        @SuppressWarnings("unchecked") Future<Integer>[] futuros =
+            (Future<Integer>[])new Future<?>[partes];
+        @SuppressWarnings("unchecked") Ronda[] rondas =
+            (Ronda[])new Comunidades<?>.Ronda[partes];
+        for (int t = 0; t < partes; t++)
+            rondas[t] = new Ronda((int)((long)n * t / partes),
+                                  (int)((long)n * (t+1) / partes));
+        ExecutorService ejecutor = Executors.newFixedThreadPool(partes);
+        try {
+            for (int r = 0; r < maximoRondas; r++) {
+                for (int t = 0; t < partes; t++)
+                    futuros[t] = ejecutor.submit(rondas[t]);
+                int cambios = 0;
+                for (Future<Integer> f : futuros)
+                    cambios += espera(f);
+                if (cambios == 0)
+                    break;
+            }
+        } finally {
+            ejecutor.shutdownNow();
+        }
+    }
+
+    /* Espera el resultado de una ronda, propagando sus excepciones. */
+    private int espera(Future<Integer> futuro) {
+        try {
+            return futuro.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ie);
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof RuntimeException)
+                throw (RuntimeException)ee.getCause();
+            throw new IllegalStateException(ee.getCause());
+        }
+    }
+}
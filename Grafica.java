@@ -1,12 +1,21 @@
 package mx.unam.ciencias.edd;
 
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Clase para gráficas. Una gráfica es un conjunto de vértices y
  * aristas, tales que las aristas son un subconjunto del producto
- * cruz de los vértices.
+ * cruz de los vértices. Una gráfica puede ser dirigida; en ese caso
+ * cada arista sólo se guarda en su vértice de origen, y los
+ * recorridos y las trayectorias respetan su dirección.
  */
 public class Grafica<T> implements Iterable<T> {
 
@@ -38,6 +47,213 @@ public class Grafica<T> implements Iterable<T> {
         }
     }
 
+    /* Spliterador para los elementos de la gráfica; recorre un
+     * rango del arreglo de vértices numerados. */
+    private class Spliterador implements Spliterator<T> {
+
+        /* Los vértices numerados al crear el spliterador. */
+        private Vertice<T>[] arreglo;
+        /* El siguiente índice a visitar. */
+        private int inicio;
+        /* El índice después del último a visitar. */
+        private int fin;
+
+        /* Crea un spliterador para el rango [inicio, fin). */
+        public Spliterador(Vertice<T>[] arreglo, int inicio, int fin) {
+            this.arreglo = arreglo;
+            this.inicio = inicio;
+            this.fin = fin;
+        }
+
+        /* Visita el siguiente elemento, si lo hay. */
+        @Override public boolean tryAdvance(Consumer<? super T> accion) {
+            if(inicio == fin)
+                return false;
+            accion.accept(arreglo[inicio++].elemento);
+            return true;
+        }
+
+        /* Visita los elementos restantes. */
+        @Override public void forEachRemaining(Consumer<? super T> accion) {
+            for(int i = inicio; i < fin; i++)
+                accion.accept(arreglo[i].elemento);
+            inicio = fin;
+        }
+
+        /* Regresa la primera mitad del rango y se queda con la
+         * segunda. */
+        @Override public Spliterator<T> trySplit() {
+            int mitad = (inicio + fin) >>> 1;
+            if(mitad == inicio)
+                return null;
+            Spliterador prefijo = new Spliterador(arreglo, inicio, mitad);
+            inicio = mitad;
+            return prefijo;
+        }
+
+        /* Regresa el número exacto de elementos restantes. */
+        @Override public long estimateSize() {
+            return fin - inicio;
+        }
+
+        /* Los elementos tienen orden, son distintos y sabemos
+         * cuántos son. */
+        @Override public int characteristics() {
+            return ORDERED | DISTINCT | SIZED | SUBSIZED;
+        }
+    }
+
+    /**
+     * Vista de la vecindad de un vértice: los vértices a lo más a
+     * <em>k</em> aristas de distancia, y las aristas entre ellos. La
+     * vista comparte los vértices con la gráfica, y deja de ser
+     * válida si la gráfica se modifica; en ese caso sus métodos
+     * lanzan {@link IllegalStateException}.
+     */
+    public class Vecindad implements Iterable<T> {
+
+        /* Los vértices de la vecindad, en orden BFS. */
+        private Vertice<T>[] miembros;
+        /* La distancia en aristas de cada miembro al centro. */
+        private int[] saltos;
+        /* El índice de cada elemento en los miembros. */
+        private Diccionario<T, Integer> indices;
+        /* La versión de la gráfica al crear la vista. */
+        private int versionVista;
+
+        /* Crea la vecindad con los miembros recibidos. */
+        private Vecindad(Vertice<T>[] miembros, int[] saltos,
+                         Diccionario<T, Integer> indices) {
+            this.miembros = miembros;
+            this.saltos = saltos;
+            this.indices = indices;
+            versionVista = version;
+        }
+
+        /**
+         * Regresa el número de vértices en la vecindad.
+         * @return el número de vértices en la vecindad.
+         */
+        public int getVertices() {
+            revisaVersion();
+            return miembros.length;
+        }
+
+        /**
+         * Nos dice si el elemento está en la vecindad.
+         * @param elemento el elemento a buscar.
+         * @return <tt>true</tt> si el elemento está en la vecindad,
+         *         <tt>false</tt> en otro caso.
+         */
+        public boolean contiene(T elemento) {
+            revisaVersion();
+            return indices.contiene(elemento);
+        }
+
+        /**
+         * Regresa a cuántas aristas del centro está el elemento.
+         * @param elemento el elemento.
+         * @return la distancia en aristas del centro al elemento.
+         * @throws NoSuchElementException si el elemento no está en la
+         *         vecindad.
+         */
+        public int getSaltos(T elemento) {
+            revisaVersion();
+            if(!indices.contiene(elemento))
+                throw new NoSuchElementException();
+            return saltos[indices.get(elemento)];
+        }
+
+        /**
+         * Regresa un iterador para los elementos de la vecindad, en
+         * orden BFS a partir del centro.
+         * @return un iterador para los elementos de la vecindad.
+         */
+        @Override public Iterator<T> iterator() {
+            revisaVersion();
+            return new Iterator<T>() {
+                private int i = 0;
+                @Override public boolean hasNext() {
+                    return i < miembros.length;
+                }
+                @Override public T next() {
+                    if(i == miembros.length)
+                        throw new NoSuchElementException();
+                    return miembros[i++].elemento;
+                }
+                @Override public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        /**
+         * Genera el SVG de la vecindad, con el mismo estilo que
+         * {@link Grafica#generaScalableVectorGraphics()}. El costo es
+         * proporcional a la vecindad: para cada miembro se revisan sus
+         * aristas o los demás miembros, lo que sea menor.
+         * @return el SVG de la vecindad.
+         */
+        public String generaScalableVectorGraphics() {
+            revisaVersion();
+            int n = miembros.length;
+            int lado = 100 * n + 100;
+            StringBuilder sb = new StringBuilder(256 * n);
+            sb.append("<?xml version='1.0' encoding='UTF-8'?> \n<svg width='")
+              .append(lado).append("' height='").append(lado).append("'> \n <g>");
+            sb.append("\n<rect width='").append(lado).append("' height='")
+              .append(lado).append("' x = '0' y = '0' style='fill:rgb(10000,10000,10000);stroke-width:1;stroke:rgb(0,0,0)'/>");
+            if(dirigida)
+                sb.append('\n').append(FLECHA);
+            for(int i = 0; i < n; i++){
+                Vertice<T> v = miembros[i];
+                if(v.aristas.getTotal() <= n){
+                    for(Arista<T> a : v.aristas)
+                        if(indices.contiene(a.vecino.elemento))
+                            linea(sb, i, indices.get(a.vecino.elemento), a.peso);
+                }else{
+                    for(int j = 0; j < n; j++){
+                        Arista<T> a = buscaArista(v, miembros[j].elemento);
+                        if(a != null)
+                            linea(sb, i, j, a.peso);
+                    }
+                }
+            }
+            for(int i = 0; i < n; i++){
+                double x = obtenerX(i, n), y = obtenerY(i, n);
+                sb.append("<circle cx='").append(x).append("' cy='").append(y)
+                  .append("' r='20' stroke='black' stroke-width='3' fill='")
+                  .append(i == 0 ? "yellow" : "white").append("'></circle>\n");
+                sb.append("<text fill='black' font-family='sans-serif' font-size='20' x='")
+                  .append(x).append("' y='").append(y + 8)
+                  .append("' text-anchor='middle'>").append(miembros[i].elemento)
+                  .append("</text>\n");
+            }
+            return sb.append("\n</g>\n</svg>").toString();
+        }
+
+        /* Agrega la línea entre los miembros i y j, una sola vez por
+         * arista. */
+        private void linea(StringBuilder sb, int i, int j, double peso) {
+            if(!dirigida && j < i)
+                return;
+            int n = miembros.length;
+            double x1 = obtenerX(i, n), y1 = obtenerY(i, n),
+                   x2 = obtenerX(j, n), y2 = obtenerY(j, n);
+            sb.append("<line stroke='black' stroke-width='1'");
+            extremos(sb, x1, y1, x2, y2, 22).append(" />\n");
+            sb.append("<text fill='red' font-family='sans-serif' font-size='20' x='")
+              .append((x1+x2)/2+20).append("' y='").append((y1+y2)/2-10)
+              .append("' text-anchor='middle'>").append(peso).append("</text>\n");
+        }
+
+        /* Revisa que la gráfica no haya cambiado. */
+        private void revisaVersion() {
+            if(versionVista != version)
+                throw new IllegalStateException();
+        }
+    }
+
     /* Aristas para gráficas; para poder guardar el peso de las
      * aristas. */
     private class Arista<T> {
@@ -46,6 +262,8 @@ public class Grafica<T> implements Iterable<T> {
         public Grafica<T>.Vertice<T> vecino;
         /* El peso de arista conectando al vértice con el vecino. */
         public double peso;
+        /* El lugar de la arista en el arreglo de adyacencias. */
+        public int lugar;
 
         public Arista(Grafica<T>.Vertice<T> vecino, double peso) {
             this.vecino = vecino;
@@ -61,25 +279,20 @@ public class Grafica<T> implements Iterable<T> {
         /* Iterador para las vecinos del vértice. */
         private class IteradorVecinos implements Iterator<VerticeGrafica<T>> {
 
-            /* Iterador auxiliar. */
-            private Iterator<Grafica<T>.Arista<T>> iterador;
-
-            /* Construye un nuevo iterador, auxiliándose del
-             * diccionario de vecinos. */
-            public IteradorVecinos(Iterator<Grafica<T>.Arista<T>> iterador) {
-                this.iterador = iterador;
-            }
+            /* El lugar del siguiente vecino. */
+            private int siguiente;
 
             /* Nos dice si hay un siguiente vecino. */
             public boolean hasNext() {
-                return iterador.hasNext();
+                return siguiente < grado;
             }
 
             /* Regresa el siguiente vecino. La audición es
              * inevitable. */
             public VerticeGrafica<T> next() {
-                Grafica<T>.Arista<T> arista = iterador.next();
-                return (VerticeGrafica<T>)arista.vecino;
+                if(siguiente >= grado)
+                    throw new NoSuchElementException();
+                return (VerticeGrafica<T>)adyacentes[siguiente++].vecino;
             }
 
             /* No lo implementamos: siempre lanza una excepción. */
@@ -96,15 +309,51 @@ public class Grafica<T> implements Iterable<T> {
         public double distancia;
         /* El índice del vértice. */
         public int indice;
+        /* La posición del vértice en la última numeración. */
+        public int posicion;
+        /* Marca auxiliar para eliminaciones masivas. */
+        public int marca;
         /* El diccionario de aristas que conectan al vértice con sus
          * vecinos. */
         public Diccionario<T, Grafica<T>.Arista<T>> aristas;
+        /* Las mismas aristas en un arreglo, para recorrerlas sin
+         * crear objetos. */
+        public Grafica<T>.Arista<T>[] adyacentes;
+        /* El número de aristas en el arreglo. */
+        public int grado;
+        /* Las aristas que llegan al vértice, indexadas por su
+         * origen; sólo en gráficas dirigidas con índice de
+         * entradas. */
+        public Diccionario<T, Grafica<T>.Arista<T>> entradas;
 
         /* Crea un nuevo vértice a partir de un elemento. */
-        public Vertice(T elemento) {
+        @SuppressWarnings("unchecked") public Vertice(T elemento) {
             this.elemento = elemento;
             color = Color.NINGUNO;
             aristas = new Diccionario<T,Grafica<T>.Arista<T>>();
+            adyacentes = (Grafica<T>.Arista<T>[])new Grafica<?>.Arista<?>[4];
+            if(conEntradas)
+                entradas = new Diccionario<T,Grafica<T>.Arista<T>>();
+        }
+
+        /* Agrega una arista al vecino con el elemento recibido. */
+        public void agregaArista(T vecino, Grafica<T>.Arista<T> arista) {
+            aristas.agrega(vecino, arista);
+            if(grado == adyacentes.length)
+                adyacentes = Arrays.copyOf(adyacentes, 2 * grado);
+            arista.lugar = grado;
+            adyacentes[grado++] = arista;
+        }
+
+        /* Elimina la arista al vecino con el elemento recibido; la
+         * última del arreglo ocupa su lugar. */
+        public void eliminaArista(T vecino) {
+            Grafica<T>.Arista<T> arista = aristas.get(vecino);
+            aristas.elimina(vecino);
+            Grafica<T>.Arista<T> ultima = adyacentes[--grado];
+            adyacentes[arista.lugar] = ultima;
+            ultima.lugar = arista.lugar;
+            adyacentes[grado] = null;
         }
 
         /* Regresa el elemento del vértice. */
@@ -114,7 +363,29 @@ public class Grafica<T> implements Iterable<T> {
 
         /* Regresa el grado del vértice. */
         public int getGrado() {
-            return aristas.getTotal();
+            return grado;
+        }
+
+        /* Regresa el i-ésimo vecino del vértice. */
+        public VerticeGrafica<T> getVecino(int i) {
+            if(i < 0 || i >= grado)
+                throw new ExcepcionIndiceInvalido();
+            return (VerticeGrafica<T>)adyacentes[i].vecino;
+        }
+
+        /* Regresa el peso de la arista al i-ésimo vecino. */
+        public double getPeso(int i) {
+            if(i < 0 || i >= grado)
+                throw new ExcepcionIndiceInvalido();
+            return adyacentes[i].peso;
+        }
+
+        /* Realiza la acción en cada vecino, con el peso de su
+         * arista. */
+        public void paraCadaVecino(AccionVecinoGrafica<T> accion) {
+            for(int i = 0; i < grado; i++)
+                accion.actua((VerticeGrafica<T>)adyacentes[i].vecino,
+                             adyacentes[i].peso);
         }
 
         /* Regresa el color del vértice. */
@@ -129,7 +400,7 @@ public class Grafica<T> implements Iterable<T> {
 
         /* Regresa un iterador para los vecinos. */
         public Iterator<VerticeGrafica<T>> iterator() {
-            return new IteradorVecinos(aristas.iterator());
+            return new IteradorVecinos();
         }
 
         /* Define el índice del vértice. */
@@ -144,21 +415,161 @@ public class Grafica<T> implements Iterable<T> {
 
         /* Compara dos vértices por distancia. */
         public int compareTo(Vertice<T> vertice) {
-            return 0;
+            return Double.compare(distancia, vertice.distancia);
+        }
+    }
+
+    /* Árbol de trayectorias mínimas desde un origen: el predecesor y
+     * la distancia de cada vértice, indexados por su posición. */
+    private class ArbolTrayectorias {
+
+        /* La versión de la gráfica con la que se calculó el árbol. */
+        public int version;
+        /* La posición del predecesor de cada vértice, o -1. */
+        public int[] predecesor;
+        /* La distancia desde el origen a cada vértice. */
+        public double[] distancia;
+
+        /* Crea un árbol vacío para la versión actual de la gráfica. */
+        public ArbolTrayectorias(int n) {
+            version = Grafica.this.version;
+            predecesor = new int[n];
+            distancia = new double[n];
+            for (int i = 0; i < n; i++) {
+                predecesor[i] = -1;
+                distancia[i] = Double.POSITIVE_INFINITY;
+            }
         }
     }
 
+    /* Caché LRU de árboles de trayectorias, indexado por el elemento
+     * de origen. */
+    private class CacheTrayectorias
+        extends LinkedHashMap<T, ArbolTrayectorias> {
+
+        /* El caché nunca se serializa, pero LinkedHashMap lo pide. */
+        private static final long serialVersionUID = 1L;
+
+        /* Crea un caché ordenado por acceso. */
+        public CacheTrayectorias() {
+            super(16, 0.75f, true);
+        }
+
+        /* Regresa el árbol del origen, si sigue siendo válido. */
+        public ArbolTrayectorias busca(T origen) {
+            ArbolTrayectorias arbol = get(origen);
+            if (arbol == null)
+                return null;
+            if (arbol.version != version) {
+                remove(origen);
+                return null;
+            }
+            return arbol;
+        }
+
+        /* Desaloja el árbol usado hace más tiempo si nos pasamos de
+         * la capacidad. */
+        @Override protected boolean
+        removeEldestEntry(Map.Entry<T, ArbolTrayectorias> eldest) {
+            return size() > capacidadCache;
+        }
+    }
+
+    /* Marcas de los vértices durante eliminaTodos. */
+    private static final int SIN_MARCA = 0;
+    private static final int PENDIENTE = 1;
+    private static final int ELIMINADO = 2;
+
+    /* La punta de flecha de las aristas dirigidas en el SVG. */
+    private static final String FLECHA =
+        "<defs><marker id='flecha' viewBox='0 0 10 10' refX='10' refY='5' " +
+        "markerWidth='12' markerHeight='12' markerUnits='userSpaceOnUse' " +
+        "orient='auto'><path d='M 0 0 L 10 5 L 0 10 z' fill='black'/></marker></defs>\n";
+
     /* Vértices. */
     private Diccionario<T, Vertice<T>> vertices;
+
+    /* Bytes de un objeto Arista en una JVM de 64 bits con referencias
+     * comprimidas: encabezado, vecino, peso, lugar y la referencia a
+     * la gráfica. */
+    private static final int BYTES_ARISTA = 32;
+    /* Bytes estimados de una entrada de diccionario. */
+    private static final int BYTES_ENTRADA = 32;
+    /* Bytes de una referencia comprimida. */
+    private static final int BYTES_REFERENCIA = 4;
     /* Número de aristas. */
     private int aristas;
+    /* Si la gráfica es dirigida. */
+    private boolean dirigida;
+    /* Si los vértices guardan las aristas que les llegan. */
+    private boolean conEntradas;
+    /* Versión de la gráfica; cambia con cada modificación. */
+    private int version;
+    /* Versión de la gráfica con la que se numeraron los vértices. */
+    private int numeracion;
+    /* Los vértices en el orden de la última numeración. */
+    private Vertice<T>[] porPosicion;
+    /* Capacidad de los cachés de trayectorias. */
+    private int capacidadCache;
+    /* Caché de árboles de BFS para trayectoriaMinima. */
+    private CacheTrayectorias cacheBFS;
+    /* Caché de árboles de Dijkstra. */
+    private CacheTrayectorias cacheDijkstra;
 
     /**
-     * Constructor único.
+     * Construye una gráfica no dirigida.
      */
     public Grafica() {
+        this(false, false);
+    }
+
+    /**
+     * Construye una gráfica dirigida o no dirigida, sin índice de
+     * entradas.
+     * @param dirigida si la gráfica es dirigida.
+     */
+    public Grafica(boolean dirigida) {
+        this(dirigida, false);
+    }
+
+    /**
+     * Construye una gráfica dirigida o no dirigida. En una gráfica
+     * dirigida cada vértice guarda sólo sus aristas de salida; con
+     * índice de entradas guarda además las que le llegan, lo que
+     * cuesta memoria pero hace que {@link #elimina} y {@link
+     * #paraCadaEntrada} sean proporcionales al grado en lugar de al
+     * tamaño de la gráfica. En una gráfica no dirigida el índice no
+     * hace falta y se ignora.
+     * @param dirigida si la gráfica es dirigida.
+     * @param conEntradas si los vértices guardan las aristas que les
+     *        llegan.
+     */
+    public Grafica(boolean dirigida, boolean conEntradas) {
+            this.dirigida = dirigida;
+            this.conEntradas = dirigida && conEntradas;
             vertices = new Diccionario<T, Vertice<T>>();
             aristas = 0;
+            numeracion = -1;
+            capacidadCache = 16;
+            cacheBFS = new CacheTrayectorias();
+            cacheDijkstra = new CacheTrayectorias();
+    }
+
+    /**
+     * Define cuántos árboles de trayectorias mínimas se guardan por
+     * cada algoritmo ({@link #trayectoriaMinima} y {@link
+     * #dijkstra}). Cuando se excede, se desaloja el árbol cuyo
+     * origen se consultó hace más tiempo. Con capacidad 0 no se
+     * guarda ningún árbol.
+     * @param capacidad el número máximo de orígenes a recordar.
+     * @throws IllegalArgumentException si la capacidad es negativa.
+     */
+    public void setCapacidadCache(int capacidad) {
+        if (capacidad < 0)
+            throw new IllegalArgumentException();
+        capacidadCache = capacidad;
+        cacheBFS.clear();
+        cacheDijkstra.clear();
     }
 
     /**
@@ -177,6 +588,24 @@ public class Grafica<T> implements Iterable<T> {
         return aristas;
     }
 
+    /**
+     * Nos dice si la gráfica es dirigida.
+     * @return <tt>true</tt> si la gráfica es dirigida, <tt>false</tt>
+     *         en otro caso.
+     */
+    public boolean esDirigida() {
+        return dirigida;
+    }
+
+    /**
+     * Nos dice si los vértices guardan las aristas que les llegan.
+     * @return <tt>true</tt> si la gráfica es dirigida y tiene índice
+     *         de entradas, <tt>false</tt> en otro caso.
+     */
+    public boolean tieneEntradas() {
+        return conEntradas;
+    }
+
     /**
      * Agrega un nuevo elemento a la gráfica.
      * @param elemento el elemento a agregar.
@@ -184,9 +613,10 @@ public class Grafica<T> implements Iterable<T> {
      *         agregado a la gráfica.
      */
     public void agrega(T elemento) {
-        if(!contiene(elemento))
+        if(!contiene(elemento)){
             vertices.agrega(elemento,new Vertice<T>(elemento));
-        else 
+            version++;
+        }else
             throw new IllegalArgumentException();
     }
 
@@ -206,11 +636,8 @@ public class Grafica<T> implements Iterable<T> {
             throw new NoSuchElementException();
         if(sonVecinos(a,b)||a == b)
             throw new IllegalArgumentException();
-        Vertice<T> v1 = buscaVertice(a),
-        v2 = buscaVertice(b);
-        v1.aristas.agrega(b,new Arista<T>(v2,1));
-        v2.aristas.agrega(a,new Arista<T>(v1,1));
-        aristas++;
+        une(buscaVertice(a),buscaVertice(b),1);
+        version++;
     }
 
     /**
@@ -229,13 +656,57 @@ public class Grafica<T> implements Iterable<T> {
             throw new NoSuchElementException();
         if(sonVecinos(a,b)||a == b)
             throw new IllegalArgumentException();
-        Vertice<T> v1 = buscaVertice(a),
-        v2 = buscaVertice(b);
-        v1.aristas.agrega(b,new Arista<T>(v2,peso));
-        v2.aristas.agrega(a,new Arista<T>(v1,peso));
+        une(buscaVertice(a),buscaVertice(b),peso);
+        version++;
+    }
+
+    /* Conecta en lote los pares (a[i], b[i]) con peso pesos[i], para
+     * i entre 0 y n-1, agregando los elementos que no estén en la
+     * gráfica. Si omiteRepetidas es verdadero, las aristas repetidas y
+     * los lazos se omiten; si no, lanzan IllegalArgumentException y
+     * las aristas anteriores del lote se quedan en la gráfica. Regresa
+     * el número de aristas omitidas. */
+    int conectaLote(T[] a, T[] b, double[] pesos, int n,
+                    boolean omiteRepetidas) {
+        int omitidas = 0;
+        try{
+            for(int i = 0; i < n; i++){
+                Vertice<T> v1 = verticeOAgrega(a[i]),
+                           v2 = verticeOAgrega(b[i]);
+                if(v1 == v2 || v1.aristas.contiene(b[i])){
+                    if(!omiteRepetidas)
+                        throw new IllegalArgumentException();
+                    omitidas++;
+                    continue;
+                }
+                une(v1,v2,pesos[i]);
+            }
+        }finally{
+            version++;
+        }
+        return omitidas;
+    }
+
+    /* Agrega la arista de v1 a v2; si la gráfica no es dirigida,
+     * también su espejo. */
+    private void une(Vertice<T> v1, Vertice<T> v2, double peso){
+        v1.agregaArista(v2.elemento,new Arista<T>(v2,peso));
+        if(!dirigida)
+            v2.agregaArista(v1.elemento,new Arista<T>(v1,peso));
+        else if(conEntradas)
+            v2.entradas.agrega(v1.elemento,new Arista<T>(v1,peso));
         aristas++;
     }
 
+    /* Regresa el vértice del elemento, agregándolo si no existe. */
+    private Vertice<T> verticeOAgrega(T elemento){
+        if(vertices.contiene(elemento))
+            return vertices.get(elemento);
+        Vertice<T> v = new Vertice<T>(elemento);
+        vertices.agrega(elemento,v);
+        return v;
+    }
+
     /**
      * Desconecta dos elementos de la gráfica. Los elementos deben
      * estar en la gráfica y estar conectados entre ellos.
@@ -251,17 +722,15 @@ public class Grafica<T> implements Iterable<T> {
         v2 = buscaVertice(b);
         if(v1 == null || v2 == null)
             throw new NoSuchElementException();
-        if(!sonVecinos(a,b))
+        if(buscaArista(v1,b) == null)
             throw new IllegalArgumentException();
-        for(Arista<T> arista : v2.aristas){
-            if(arista.vecino == v1)
-                v2.aristas.elimina(a);
-        }
-        for(Arista<T> arista : v1.aristas){
-            if(arista.vecino == v2)
-                v1.aristas.elimina(b);
-        }
+        v1.eliminaArista(b);
+        if(!dirigida)
+            v2.eliminaArista(a);
+        else if(conEntradas)
+            v2.entradas.elimina(a);
         aristas--;
+        version++;
     }
 
     /**
@@ -283,13 +752,107 @@ public class Grafica<T> implements Iterable<T> {
     public void elimina(T elemento) {
         Vertice<T> ve = buscaVertice(elemento);
          if(ve != null){
-            for(Arista<T> arista : ve.aristas)
-                desconecta(arista.vecino.elemento,elemento);
+            /* Sólo hay que quitar las aristas espejo de los vecinos;
+             * las del vértice se van con él. */
+            for(Arista<T> arista : ve.aristas){
+                if(!dirigida)
+                    arista.vecino.eliminaArista(elemento);
+                else if(conEntradas)
+                    arista.vecino.entradas.elimina(elemento);
+                aristas--;
+            }
+            /* En una gráfica dirigida también hay que quitar las
+             * aristas que le llegan. */
+            if(conEntradas){
+                for(Arista<T> arista : ve.entradas){
+                    arista.vecino.eliminaArista(elemento);
+                    aristas--;
+                }
+            }else if(dirigida){
+                for(Vertice<T> v : vertices){
+                    if(v.aristas.contiene(elemento)){
+                        v.eliminaArista(elemento);
+                        aristas--;
+                    }
+                }
+            }
             vertices.elimina(elemento);
+            version++;
         }else
             throw new NoSuchElementException();
     }
 
+    /**
+     * Elimina varios elementos de la gráfica. Todos tienen que
+     * estar contenidos en la gráfica; si alguno no lo está, la
+     * gráfica no se modifica. Cada arista afectada se visita una
+     * sola vez, y las aristas entre dos elementos eliminados no se
+     * quitan de ninguna lista de vecinos.
+     * @param elementos los elementos a eliminar.
+     * @throws NoSuchElementException si algún elemento no está
+     *         contenido en la gráfica.
+     */
+    public void eliminaTodos(Iterable<T> elementos) {
+        Lista<Vertice<T>> pendientes = new Lista<Vertice<T>>();
+        for(T elemento : elementos){
+            Vertice<T> v = buscaVertice(elemento);
+            if(v == null){
+                for(Vertice<T> p : pendientes)
+                    p.marca = SIN_MARCA;
+                throw new NoSuchElementException();
+            }
+            if(v.marca == SIN_MARCA){
+                v.marca = PENDIENTE;
+                pendientes.agregaFinal(v);
+            }
+        }
+        /* En una gráfica dirigida sin índice de entradas, quitamos
+         * de una pasada las aristas que llegan a los eliminados desde
+         * los que se quedan. */
+        if(dirigida && !conEntradas){
+            for(Vertice<T> u : vertices){
+                if(u.marca != SIN_MARCA)
+                    continue;
+                for(int k = u.grado - 1; k >= 0; k--){
+                    Vertice<T> vecino = u.adyacentes[k].vecino;
+                    if(vecino.marca != SIN_MARCA){
+                        u.eliminaArista(vecino.elemento);
+                        aristas--;
+                    }
+                }
+            }
+        }
+        for(Vertice<T> v : pendientes){
+            for(Arista<T> arista : v.aristas){
+                Vertice<T> vecino = arista.vecino;
+                if(vecino.marca == SIN_MARCA){
+                    if(!dirigida)
+                        vecino.eliminaArista(v.elemento);
+                    else if(conEntradas)
+                        vecino.entradas.elimina(v.elemento);
+                }
+                /* En una gráfica no dirigida, las aristas a vértices
+                 * ya eliminados ya se contaron; en una dirigida cada
+                 * arista se cuenta en su origen. */
+                if(dirigida || vecino.marca != ELIMINADO)
+                    aristas--;
+            }
+            if(conEntradas){
+                for(Arista<T> arista : v.entradas){
+                    Vertice<T> vecino = arista.vecino;
+                    if(vecino.marca == SIN_MARCA){
+                        vecino.eliminaArista(v.elemento);
+                        aristas--;
+                    }
+                }
+            }
+            v.marca = ELIMINADO;
+            vertices.elimina(v.elemento);
+        }
+        if(pendientes.getLongitud() > 0)
+            version++;
+    }
+
     /**
      * Nos dice si dos elementos de la gráfica están conectados. Los
      * elementos deben estar en la gráfica.
@@ -301,14 +864,14 @@ public class Grafica<T> implements Iterable<T> {
      *         la gráfica.
      */
     public boolean sonVecinos(T a, T b) {
-        if(!contiene(a) || !contiene(b))
+        Vertice<T> vA = buscaVertice(a);
+        if(vA == null)
+            throw new NoSuchElementException();
+        /* Si b es vecino, está en la gráfica. */
+        if(vA.aristas.contiene(b))
+            return true;
+        if(!vertices.contiene(b))
             throw new NoSuchElementException();
-        Vertice<T> vA = buscaVertice(a),
-        vB = buscaVertice(b);
-        for(Arista<T> arista : vA.aristas){
-            if(arista.vecino == vB)
-                return true;
-        }
         return false;
     }
 
@@ -324,16 +887,46 @@ public class Grafica<T> implements Iterable<T> {
      *         la gráfica.
      */
     public double getPeso(T a, T b) {
-        Vertice<T> vA = buscaVertice(a),
-                   vB = buscaVertice(b);
-        if(vA == null || vB == null)
+        Vertice<T> vA = buscaVertice(a);
+        if(vA == null)
+            throw new NoSuchElementException();
+        return peso(vA, b);
+    }
+
+    /**
+     * Regresa los pesos de las aristas de un elemento a cada uno de
+     * los elementos recibidos, en el mismo orden; el vértice de
+     * <tt>a</tt> se busca una sola vez.
+     * @param a el elemento de origen.
+     * @param elementos los elementos de destino.
+     * @return un arreglo con el peso de la arista de a a cada
+     *         elemento, o -1 si no están conectados.
+     * @throws NoSuchElementException si a o alguno de los elementos
+     *         no son elementos de la gráfica.
+     */
+    public double[] getPesos(T a, Iterable<T> elementos) {
+        Vertice<T> vA = buscaVertice(a);
+        if(vA == null)
             throw new NoSuchElementException();
-        double peso = -1;
-        for(Arista<T> arista : vA.aristas){
-            if(arista.vecino == vB)
-                peso = arista.peso;
+        double[] pesos = new double[16];
+        int n = 0;
+        for(T b : elementos){
+            if(n == pesos.length)
+                pesos = Arrays.copyOf(pesos, 2 * n);
+            pesos[n++] = peso(vA, b);
         }
-        return peso;
+        return Arrays.copyOf(pesos, n);
+    }
+
+    /* Regresa el peso de la arista de v al elemento, o -1 si no
+     * están conectados. */
+    private double peso(Vertice<T> v, T elemento){
+        Arista<T> arista = buscaArista(v, elemento);
+        if(arista != null)
+            return arista.peso;
+        if(!vertices.contiene(elemento))
+            throw new NoSuchElementException();
+        return -1;
     }
 
     /**
@@ -349,6 +942,83 @@ public class Grafica<T> implements Iterable<T> {
         return v;
     }
 
+    /**
+     * Regresa el <em>i</em>-ésimo vecino del vértice, sin crear
+     * objetos. Los vecinos de un vértice se numeran de 0 al grado
+     * menos uno; la numeración cambia al desconectar al vértice.
+     * @param vertice un vértice de la gráfica.
+     * @param i el número de vecino.
+     * @return el <em>i</em>-ésimo vecino del vértice.
+     * @throws ExcepcionIndiceInvalido si el índice es inválido.
+     * @throws IllegalArgumentException si el vértice no es un vértice
+     *         actual de esta gráfica: de otra gráfica, de otra
+     *         implementación, eliminado, o anterior a un
+     *         reordenamiento.
+     */
+    public VerticeGrafica<T> getVecino(VerticeGrafica<T> vertice, int i) {
+        return propio(vertice).getVecino(i);
+    }
+
+    /**
+     * Regresa el peso de la arista al <em>i</em>-ésimo vecino del
+     * vértice, sin crear objetos.
+     * @param vertice un vértice de la gráfica.
+     * @param i el número de vecino.
+     * @return el peso de la arista al <em>i</em>-ésimo vecino.
+     * @throws ExcepcionIndiceInvalido si el índice es inválido.
+     * @throws IllegalArgumentException si el vértice no es un vértice
+     *         actual de esta gráfica: de otra gráfica, de otra
+     *         implementación, eliminado, o anterior a un
+     *         reordenamiento.
+     */
+    public double getPesoVecino(VerticeGrafica<T> vertice, int i) {
+        return propio(vertice).getPeso(i);
+    }
+
+    /**
+     * Realiza la acción recibida en cada vecino del vértice, con el
+     * peso de la arista que los une. A diferencia de iterar al
+     * vértice, no crea ningún objeto.
+     * @param vertice un vértice de la gráfica.
+     * @param accion la acción a realizar.
+     * @throws IllegalArgumentException si el vértice no es un vértice
+     *         actual de esta gráfica: de otra gráfica, de otra
+     *         implementación, eliminado, o anterior a un
+     *         reordenamiento.
+     */
+    public void paraCadaVecino(VerticeGrafica<T> vertice,
+                               AccionVecinoGrafica<T> accion) {
+        propio(vertice).paraCadaVecino(accion);
+    }
+
+    /**
+     * Realiza la acción recibida en cada vértice del que sale una
+     * arista hacia el elemento, con el peso de esa arista. En una
+     * gráfica no dirigida son sus vecinos. En una gráfica dirigida
+     * sin índice de entradas hay que revisar toda la gráfica.
+     * @param elemento el elemento.
+     * @param accion la acción a realizar.
+     * @throws NoSuchElementException si el elemento no está en la
+     *         gráfica.
+     */
+    public void paraCadaEntrada(T elemento, AccionVecinoGrafica<T> accion) {
+        Vertice<T> v = buscaVertice(elemento);
+        if(v == null)
+            throw new NoSuchElementException();
+        if(!dirigida){
+            v.paraCadaVecino(accion);
+        }else if(conEntradas){
+            for(Arista<T> a : v.entradas)
+                accion.actua(a.vecino, a.peso);
+        }else{
+            for(Vertice<T> u : vertices){
+                Arista<T> a = buscaArista(u, elemento);
+                if(a != null)
+                    accion.actua(u, a.peso);
+            }
+        }
+    }
+
     /**
      * Realiza la acción recibida en cada uno de los vértices de la
      * gráfica, en el orden en que fueron agregados.
@@ -359,6 +1029,63 @@ public class Grafica<T> implements Iterable<T> {
             accion.actua(v);
     }
 
+    /**
+     * Regresa la vecindad del elemento: los elementos a lo más a
+     * <em>k</em> aristas de distancia. La vecindad es una vista que
+     * no copia vértices, y su costo es proporcional a las aristas de
+     * los vértices a menos de <em>k</em> aristas del centro, no al
+     * tamaño de la gráfica.
+     * @param elemento el elemento en el centro de la vecindad.
+     * @param k el número máximo de aristas desde el centro.
+     * @return la vecindad del elemento.
+     * @throws NoSuchElementException si el elemento no está en la
+     *         gráfica.
+     * @throws IllegalArgumentException si k es negativo.
+     */
+    public Vecindad vecindad(T elemento, int k) {
+        Vertice<T> centro = buscaVertice(elemento);
+        if(centro == null)
+            throw new NoSuchElementException();
+        if(k < 0)
+            throw new IllegalArgumentException();
+        Diccionario<T, Integer> indices = new Diccionario<T, Integer>();
+        Lista<Vertice<T>> miembros = new Lista<Vertice<T>>();
+        Lista<Integer> saltos = new Lista<Integer>();
+        indices.agrega(elemento, 0);
+        miembros.agregaFinal(centro);
+        saltos.agregaFinal(0);
+        Cola<Vertice<T>> cola = new Cola<Vertice<T>>();
+        Cola<Integer> distancias = new Cola<Integer>();
+        cola.mete(centro);
+        distancias.mete(0);
+        while(!cola.esVacia()){
+            Vertice<T> v = cola.saca();
+            int d = distancias.saca();
+            /* Los vecinos de la última capa ya no entran. */
+            if(d == k)
+                continue;
+            for(Arista<T> a : v.aristas){
+                if(indices.contiene(a.vecino.elemento))
+                    continue;
+                indices.agrega(a.vecino.elemento, miembros.getLongitud());
+                miembros.agregaFinal(a.vecino);
+                saltos.agregaFinal(d + 1);
+                cola.mete(a.vecino);
+                distancias.mete(d + 1);
+            }
+        }
+        @SuppressWarnings("unchecked") Vertice<T>[] arreglo =
+            (Vertice<T>[])new Grafica<?>.Vertice<?>[miembros.getLongitud()];
+        int[] s = new int[arreglo.length];
+        int i = 0;
+        for(Vertice<T> v : miembros)
+            arreglo[i++] = v;
+        i = 0;
+        for(int d : saltos)
+            s[i++] = d;
+        return new Vecindad(arreglo, s, indices);
+    }
+
     /**
      * Realiza la acción recibida en todos los vértices de la
      * gráfica, en el orden determinado por BFS, comenzando por el
@@ -376,7 +1103,29 @@ public class Grafica<T> implements Iterable<T> {
         if(v == null)
             throw new NoSuchElementException();
         Cola<Vertice<T>> cola = new Cola<Vertice<T>>();
-        recorridos(v,accion,cola);
+        recorridos(v,accion,cola,null);
+    }
+
+    /**
+     * Realiza la acción recibida en todos los vértices de la
+     * gráfica en orden BFS, como {@link #bfs(Object,
+     * AccionVerticeGrafica)}, y anota en la bitácora cada vértice
+     * descubierto y visitado.
+     * @param elemento el elemento sobre cuyo vértice queremos
+     *        comenzar el recorrido.
+     * @param accion la acción a realizar.
+     * @param bitacora la bitácora donde se registra el recorrido.
+     * @throws NoSuchElementException si el elemento no está en la
+     *         gráfica.
+     */
+    public void bfs(T elemento, AccionVerticeGrafica<T> accion,
+                    BitacoraRecorrido bitacora) {
+        Vertice<T> v = buscaVertice(elemento);
+        if(v == null)
+            throw new NoSuchElementException();
+        numera();
+        bitacora.empieza(this, version);
+        recorridos(v,accion,new Cola<Vertice<T>>(),bitacora);
     }
 
     /**
@@ -396,7 +1145,29 @@ public class Grafica<T> implements Iterable<T> {
         if(v == null)
             throw new NoSuchElementException();
         Pila<Vertice<T>> pila = new Pila<Vertice<T>>();
-        recorridos(v,accion,pila);
+        recorridos(v,accion,pila,null);
+    }
+
+    /**
+     * Realiza la acción recibida en todos los vértices de la
+     * gráfica en orden DFS, como {@link #dfs(Object,
+     * AccionVerticeGrafica)}, y anota en la bitácora cada vértice
+     * descubierto y visitado.
+     * @param elemento el elemento sobre cuyo vértice queremos
+     *        comenzar el recorrido.
+     * @param accion la acción a realizar.
+     * @param bitacora la bitácora donde se registra el recorrido.
+     * @throws NoSuchElementException si el elemento no está en la
+     *         gráfica.
+     */
+    public void dfs(T elemento, AccionVerticeGrafica<T> accion,
+                    BitacoraRecorrido bitacora) {
+        Vertice<T> v = buscaVertice(elemento);
+        if(v == null)
+            throw new NoSuchElementException();
+        numera();
+        bitacora.empieza(this, version);
+        recorridos(v,accion,new Pila<Vertice<T>>(),bitacora);
     }
 
     /**
@@ -404,20 +1175,30 @@ public class Grafica<T> implements Iterable<T> {
      * @param v el vertice del cual queremos comenzar el recorrido.
      * @param accion la acción a realizar.
      * @param pc que recibe o una pila si es DFS o una cola si es BFS.
+     * @param bitacora donde se registra el recorrido, o null.
      */
-    private void recorridos(Vertice<T> v,AccionVerticeGrafica<T> accion,MeteSaca<Vertice<T>> pc){
+    private void recorridos(Vertice<T> v,AccionVerticeGrafica<T> accion,MeteSaca<Vertice<T>> pc,
+                            BitacoraRecorrido bitacora){
         for(Vertice<T> v2 : vertices)
             v2.color = Color.NEGRO;
         pc.mete(v);
         v.color = Color.ROJO;
+        if(bitacora != null)
+            bitacora.registra(BitacoraRecorrido.DESCUBIERTO, v.posicion, -1);
          while(!pc.esVacia()){
             v = pc.saca();
+            if(bitacora != null)
+                bitacora.registraPaso(BitacoraRecorrido.VISITADO, v.posicion, -1);
             accion.actua(v);
             /* Metemos a los vecinos del vértice actual y los marcamos */
-            for(Arista<T> a : v.aristas){
+            for(int k = 0; k < v.grado; k++){
+                Arista<T> a = v.adyacentes[k];
                 if(a.vecino.color == Color.NEGRO){
                     pc.mete(a.vecino);
                     a.vecino.color = Color.ROJO;
+                    if(bitacora != null)
+                        bitacora.registra(BitacoraRecorrido.DESCUBIERTO,
+                                          a.vecino.posicion, v.posicion);
                 }
             }
         }
@@ -427,6 +1208,17 @@ public class Grafica<T> implements Iterable<T> {
     }
 
     /* Método para buscar un vértice */
+    /* Regresa el vértice recibido como vértice de esta gráfica, si es
+     * el vértice actual de su elemento. */
+    private Vertice<T> propio(VerticeGrafica<T> vertice){
+        if(!(vertice instanceof Grafica<?>.Vertice<?>))
+            throw new IllegalArgumentException();
+        @SuppressWarnings("unchecked") Vertice<T> v = (Vertice<T>)vertice;
+        if(buscaVertice(v.elemento) != v)
+            throw new IllegalArgumentException();
+        return v;
+    }
+
     private Vertice<T> buscaVertice(T elemento){
         try{
             return vertices.get(elemento);
@@ -435,13 +1227,183 @@ public class Grafica<T> implements Iterable<T> {
         }
     }
 
+    /* Asigna a cada vértice su posición en el orden del
+     * diccionario, a menos que la gráfica no haya cambiado desde la
+     * última numeración. */
+    private void numera() {
+        if(numeracion == version)
+            return;
+        @SuppressWarnings("unchecked") Vertice<T>[] arreglo =
+            (Vertice<T>[])new Grafica<?>.Vertice<?>[vertices.getTotal()];
+        int i = 0;
+        for(Vertice<T> v : vertices){
+            v.posicion = i;
+            arreglo[i++] = v;
+        }
+        porPosicion = arreglo;
+        numeracion = version;
+    }
+
+    /**
+     * Regresa el ancho de banda de la gráfica con la numeración
+     * actual de sus vértices: la máxima diferencia entre las
+     * posiciones de dos vértices conectados, en el orden de {@link
+     * #stream}.
+     * @return el ancho de banda de la gráfica.
+     */
+    public int getAnchoDeBanda() {
+        return compacta().anchoDeBanda();
+    }
+
+    /**
+     * Renumera los vértices con el algoritmo de Cuthill–McKee
+     * inverso, y reconstruye los vértices y sus aristas en ese
+     * orden, de manera que los vecinos queden cerca en memoria. El
+     * nuevo orden es el de {@link #stream} hasta la siguiente
+     * modificación de la gráfica. Todos los vértices se reconstruyen,
+     * así que los {@link VerticeGrafica} obtenidos antes de llamar
+     * este método dejan de ser válidos: ya no están en la gráfica, y
+     * {@link #getVecino}, {@link #getPesoVecino} y {@link
+     * #paraCadaVecino(VerticeGrafica,AccionVecinoGrafica)} lanzan
+     * {@link IllegalArgumentException} si los reciben. Para seguir
+     * usándolos hay que volver a pedirlos con {@link #vertice}.
+     * @return el ancho de banda con la nueva numeración.
+     */
+    public int reordenaCuthillMcKee() {
+        AdyacenciaCompacta<T> csr = compacta();
+        return reconstruye(csr, csr.ordenCuthillMcKee());
+    }
+
+    /**
+     * Renumera los vértices en orden BFS, y reconstruye los vértices
+     * y sus aristas en ese orden. Cada componente conexa se recorre a
+     * partir de su primer vértice en el orden actual. El nuevo orden
+     * es el de {@link #stream} hasta la siguiente modificación de la
+     * gráfica. Todos los vértices se reconstruyen, así que los {@link
+     * VerticeGrafica} obtenidos antes de llamar este método dejan de
+     * ser válidos, como en {@link #reordenaCuthillMcKee}.
+     * @return el ancho de banda con la nueva numeración.
+     */
+    public int reordenaBFS() {
+        AdyacenciaCompacta<T> csr = compacta();
+        return reconstruye(csr, csr.ordenBFS());
+    }
+
+    /* Reconstruye los vértices y las aristas en el orden recibido, y
+     * regresa el nuevo ancho de banda. Los vértices se crean en orden
+     * para que queden contiguos en el heap, y las aristas de cada
+     * vértice se agregan por posición creciente del vecino. */
+    private int reconstruye(AdyacenciaCompacta<T> csr, int[] orden){
+        int n = orden.length;
+        int[] posicion = new int[n];
+        for(int k = 0; k < n; k++)
+            posicion[orden[k]] = k;
+        Diccionario<T, Vertice<T>> nuevos = new Diccionario<T, Vertice<T>>();
+        @SuppressWarnings("unchecked") Vertice<T>[] arreglo =
+            (Vertice<T>[])new Grafica<?>.Vertice<?>[n];
+        for(int k = 0; k < n; k++){
+            Vertice<T> v = new Vertice<T>(csr.getElemento(orden[k]));
+            v.posicion = k;
+            arreglo[k] = v;
+            nuevos.agrega(v.elemento,v);
+        }
+        long[] llaves = new long[16];
+        int ancho = 0;
+        for(int k = 0; k < n; k++){
+            int i = orden[k], l = 0;
+            if(llaves.length < csr.getGrado(i))
+                llaves = new long[csr.getGrado(i)];
+            for(int j = csr.inicio[i]; j < csr.inicio[i+1]; j++)
+                llaves[l++] = ((long)posicion[csr.vecinos[j]] << 32) | j;
+            Arrays.sort(llaves, 0, l);
+            Vertice<T> v = arreglo[k];
+            for(int a = 0; a < l; a++){
+                int p = (int)(llaves[a] >>> 32), j = (int)llaves[a];
+                v.agregaArista(arreglo[p].elemento,
+                                 new Arista<T>(arreglo[p],csr.pesos[j]));
+                if(conEntradas)
+                    arreglo[p].entradas.agrega(v.elemento,
+                                               new Arista<T>(v,csr.pesos[j]));
+                ancho = Math.max(ancho, Math.abs(k - p));
+            }
+        }
+        vertices = nuevos;
+        version++;
+        porPosicion = arreglo;
+        numeracion = version;
+        return ancho;
+    }
+
+    /* Regresa los bytes estimados que ocupan las aristas, a partir
+     * de las estructuras reales: un objeto Arista y una entrada de
+     * diccionario por arista guardada, una entrada más por cada
+     * arista en un índice de entradas, y las ranuras de los arreglos
+     * de adyacencias, incluida su capacidad sobrante. */
+    long bytesAristas() {
+        long bytes = 0;
+        for(Vertice<T> v : vertices){
+            bytes += (long)v.grado * (BYTES_ARISTA + BYTES_ENTRADA);
+            bytes += (long)v.adyacentes.length * BYTES_REFERENCIA;
+            if(v.entradas != null)
+                bytes += (long)v.entradas.getTotal() * BYTES_ENTRADA;
+        }
+        return bytes;
+    }
+
+    /* Regresa la representación compacta de la gráfica; los
+     * vértices quedan numerados en el orden del diccionario. */
+    AdyacenciaCompacta<T> compacta() {
+        numera();
+        int n = porPosicion.length;
+        AdyacenciaCompacta<T> csr =
+            new AdyacenciaCompacta<T>(n, dirigida ? aristas : 2 * aristas);
+        int k = 0;
+        for(int i = 0; i < n; i++){
+            Vertice<T> v = porPosicion[i];
+            csr.elementos[i] = v.elemento;
+            csr.inicio[i] = k;
+            for(int l = 0; l < v.grado; l++){
+                Arista<T> a = v.adyacentes[l];
+                csr.vecinos[k] = a.vecino.posicion;
+                csr.pesos[k++] = a.peso;
+            }
+        }
+        csr.inicio[n] = k;
+        return csr;
+    }
+
+    /* Reconstruye la trayectoria al destino siguiendo a los
+     * predecesores del árbol; regresa una lista vacía si el destino
+     * no es alcanzable. */
+    private Lista<VerticeGrafica<T>> trayectoria(ArbolTrayectorias arbol,
+                                                 Vertice<T> destino,
+                                                 BitacoraRecorrido bitacora) {
+        Lista<VerticeGrafica<T>> lista = new Lista<VerticeGrafica<T>>();
+        int i = destino.posicion;
+        if(arbol.distancia[i] == Double.POSITIVE_INFINITY)
+            return lista;
+        while(i != -1){
+            lista.agregaInicio(porPosicion[i]);
+            i = arbol.predecesor[i];
+        }
+        if(bitacora != null){
+            int anterior = -1;
+            for(VerticeGrafica<T> v : lista){
+                int p = ((Vertice<T>)v).posicion;
+                bitacora.registraPaso(BitacoraRecorrido.TRAYECTORIA, p, anterior);
+                anterior = p;
+            }
+        }
+        return lista;
+    }
+
     /* Método para buscar una arista por su vecino */
     private Arista<T> buscaArista(Vertice<T> v , T elemento){
-        try{
-            return v.aristas.get(elemento);
-        }catch(NoSuchElementException nsee){
-                return null;
-        }
+        /* Revisamos antes de pedirla: lanzar y atrapar una excepción
+         * por cada arista inexistente cuesta más que otra búsqueda. */
+        if(!v.aristas.contiene(elemento))
+            return null;
+        return v.aristas.get(elemento);
     }
 
     /**
@@ -453,6 +1415,37 @@ public class Grafica<T> implements Iterable<T> {
         return new Iterador<T>(this);
     }
 
+    /**
+     * Regresa un {@link Spliterator} para los elementos de la
+     * gráfica, en el orden de la numeración actual de los vértices
+     * (el de {@link #iterator}, salvo que la gráfica se haya
+     * reordenado con {@link #reordenaCuthillMcKee} o {@link
+     * #reordenaBFS}). Recorre los vértices que había al llamar el
+     * método; sabe cuántos son y se parte en mitades exactas para
+     * recorrerlos en paralelo.
+     * @return un spliterator para los elementos de la gráfica.
+     */
+    @Override public Spliterator<T> spliterator() {
+        numera();
+        return new Spliterador(porPosicion, 0, porPosicion.length);
+    }
+
+    /**
+     * Regresa un flujo secuencial con los elementos de la gráfica.
+     * @return un flujo secuencial con los elementos de la gráfica.
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Regresa un flujo paralelo con los elementos de la gráfica.
+     * @return un flujo paralelo con los elementos de la gráfica.
+     */
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
     /**
      * Calcula una trayectoria de distancia mínima entre dos
      * vértices.
@@ -467,37 +1460,69 @@ public class Grafica<T> implements Iterable<T> {
      *         no está en la gráfica.
      */
     public Lista<VerticeGrafica<T>> trayectoriaMinima(T origen, T destino) {
-        Vertice<T> ori = buscaVertice(origen); 
-    Vertice<T> dest = buscaVertice(destino); 
-    Lista<VerticeGrafica<T>> l=new Lista<VerticeGrafica<T>>(); 
-    if(ori == null || dest == null) throw new NoSuchElementException();
-    Cola<Vertice<T>> cola = new Cola<Vertice<T>>(); cola.mete(ori); ori.color=Color.ROJO; 
-    if(!auxiliar(cola, dest)) return l; l.agregaFinal(dest); auxiliar1(dest, l); return l; 
-    }
-
-private boolean auxiliar(Cola<Vertice<T>> cola, Vertice<T> vertice){ 
-    if(cola.esVacia()) 
-        return false; 
-    Vertice<T> v = cola.saca(); 
-    if(v == vertice) return true; 
-    for(Arista<T> a : v.aristas){ 
-        if(a.vecino.color != Color.ROJO){ 
-            a.vecino.color=Color.ROJO; 
-            a.vecino.distancia = v.distancia + 1; cola.mete(a.vecino); 
-        } 
-    } return auxiliar(cola,vertice); 
-} 
-
-private void auxiliar1(Vertice<T> v, Lista<VerticeGrafica<T>> lista){ 
-    if(v.distancia == 0) return; 
-    for(Arista<T> arista : v.aristas){ 
-        if(arista.vecino.distancia + 1 == v.distancia){ 
-            lista.agregaInicio(arista.vecino); 
-            auxiliar1(arista.vecino,lista); 
-            break; 
-        } 
-    } 
-}
+        return trayectoriaMinima(origen, destino, null);
+    }
+
+    /**
+     * Calcula una trayectoria de distancia mínima entre dos
+     * vértices, y anota en la bitácora los vértices descubiertos y
+     * visitados, y la trayectoria final. El árbol de BFS siempre se
+     * recalcula para poder registrarlo.
+     * @param origen el vértice de origen.
+     * @param destino el vértice de destino.
+     * @param bitacora la bitácora donde se registra el recorrido, o
+     *        <tt>null</tt> para no registrarlo.
+     * @return la trayectoria, como en {@link #trayectoriaMinima(Object,
+     *         Object)}.
+     * @throws NoSuchElementException si alguno de los dos elementos
+     *         no está en la gráfica.
+     */
+    public Lista<VerticeGrafica<T>> trayectoriaMinima(T origen, T destino,
+                                                      BitacoraRecorrido bitacora) {
+        Vertice<T> ori = buscaVertice(origen),
+                   dest = buscaVertice(destino);
+        if(ori == null || dest == null)
+            throw new NoSuchElementException();
+        numera();
+        ArbolTrayectorias arbol = bitacora == null ? cacheBFS.busca(origen) : null;
+        if(arbol == null){
+            if(bitacora != null)
+                bitacora.empieza(this, version);
+            arbol = arbolBFS(ori, bitacora);
+            if(capacidadCache > 0)
+                cacheBFS.put(origen, arbol);
+        }
+        return trayectoria(arbol, dest, bitacora);
+    }
+
+    /* Calcula el árbol de BFS completo desde el origen. */
+    private ArbolTrayectorias arbolBFS(Vertice<T> origen,
+                                       BitacoraRecorrido bitacora){
+        ArbolTrayectorias arbol = new ArbolTrayectorias(porPosicion.length);
+        Cola<Vertice<T>> cola = new Cola<Vertice<T>>();
+        arbol.distancia[origen.posicion] = 0;
+        cola.mete(origen);
+        if(bitacora != null)
+            bitacora.registra(BitacoraRecorrido.DESCUBIERTO, origen.posicion, -1);
+        while(!cola.esVacia()){
+            Vertice<T> v = cola.saca();
+            if(bitacora != null)
+                bitacora.registraPaso(BitacoraRecorrido.VISITADO, v.posicion, -1);
+            double d = arbol.distancia[v.posicion] + 1;
+            for(int k = 0; k < v.grado; k++){
+                Arista<T> a = v.adyacentes[k];
+                int i = a.vecino.posicion;
+                if(arbol.distancia[i] == Double.POSITIVE_INFINITY){
+                    arbol.distancia[i] = d;
+                    arbol.predecesor[i] = v.posicion;
+                    cola.mete(a.vecino);
+                    if(bitacora != null)
+                        bitacora.registra(BitacoraRecorrido.DESCUBIERTO, i, v.posicion);
+                }
+            }
+        }
+        return arbol;
+    }
 
     /**
      * Calcula la ruta de peso mínimo entre el elemento de origen y
@@ -512,34 +1537,73 @@ private void auxiliar1(Vertice<T> v, Lista<VerticeGrafica<T>> lista){
      *         no está en la gráfica.
      */
     public Lista<VerticeGrafica<T>> dijkstra(T ori, T dest) {
+        return dijkstra(ori, dest, null);
+    }
+
+    /**
+     * Calcula la ruta de peso mínimo entre el elemento de origen y
+     * el elemento de destino, y anota en la bitácora cada vértice
+     * visitado, cada relajación y la trayectoria final. El árbol de
+     * Dijkstra siempre se recalcula para poder registrarlo.
+     * @param ori el vértice origen.
+     * @param dest el vértice destino.
+     * @param bitacora la bitácora donde se registra el recorrido, o
+     *        <tt>null</tt> para no registrarlo.
+     * @return la trayectoria, como en {@link #dijkstra(Object,
+     *         Object)}.
+     * @throws NoSuchElementException si alguno de los dos elementos
+     *         no está en la gráfica.
+     */
+    public Lista<VerticeGrafica<T>> dijkstra(T ori, T dest,
+                                             BitacoraRecorrido bitacora) {
          Vertice<T> origen  = buscaVertice(ori),
                     destino = buscaVertice(dest);
         if(origen == null || destino == null)
             throw new NoSuchElementException();
+        numera();
+        ArbolTrayectorias arbol = bitacora == null ? cacheDijkstra.busca(ori) : null;
+        if(arbol == null){
+            if(bitacora != null)
+                bitacora.empieza(this, version);
+            arbol = arbolDijkstra(origen, bitacora);
+            if(capacidadCache > 0)
+                cacheDijkstra.put(ori, arbol);
+        }
+        return trayectoria(arbol, destino, bitacora);
+    }
+
+    /* Calcula el árbol de Dijkstra completo desde el origen. */
+    private ArbolTrayectorias arbolDijkstra(Vertice<T> origen,
+                                            BitacoraRecorrido bitacora){
+        ArbolTrayectorias arbol = new ArbolTrayectorias(porPosicion.length);
         /* Todos los vértices tienen distancia infinta */
         for(Vertice<T> v : vertices)
             v.distancia = Double.POSITIVE_INFINITY;
         /* La distancia del origen es 0 */
         origen.distancia = 0;
-        /* Se crea un montículo con los vértices de la gráfica y una lista */
-        Lista<VerticeGrafica<T>> dijkstrAlgorythm = new Lista<VerticeGrafica<T>>();
+        /* Se crea un montículo con los vértices de la gráfica */
         Lista<Vertice<T>> l = new Lista<Vertice<T>>();
         for(Vertice<T> v : vertices)
             l.agregaInicio(v);
         MonticuloMinimo<Vertice<T>> monticulo = new MonticuloMinimo<Vertice<T>>(l);
         while(!monticulo.esVacio()){
             Vertice<T> v = monticulo.elimina();
-            for(Arista<T> arista : v.aristas){
+            arbol.distancia[v.posicion] = v.distancia;
+            if(bitacora != null && v.distancia != Double.POSITIVE_INFINITY)
+                bitacora.registraPaso(BitacoraRecorrido.VISITADO, v.posicion, -1);
+            for(int k = 0; k < v.grado; k++){
+                Arista<T> arista = v.adyacentes[k];
                 if((v.distancia + arista.peso) < arista.vecino.distancia){
                     arista.vecino.distancia = v.distancia + arista.peso;
+                    arbol.predecesor[arista.vecino.posicion] = v.posicion;
+                    if(bitacora != null)
+                        bitacora.registra(BitacoraRecorrido.DESCUBIERTO,
+                                          arista.vecino.posicion, v.posicion);
                     monticulo.reordena(arista.vecino);
                 }
             }
         }
-        /* Se verifica si alguno de los vértices están en componentes conexas distintas */
-        if(origen.distancia == Double.POSITIVE_INFINITY || destino.distancia == Double.POSITIVE_INFINITY)
-            return dijkstrAlgorythm;
-        return dijkstra(destino,dijkstrAlgorythm);
+        return arbol;
     }
 
 
@@ -548,6 +1612,8 @@ private void auxiliar1(Vertice<T> v, Lista<VerticeGrafica<T>> lista){
        if(vertices.getTotal() == 0)
         	return "<?xml version='1.0' encoding='UTF-8'?> \n<svg width='100' height='100'> \n <g>\n</g>\n</svg>";
         cad += "\n<rect width='"+((100 * vertices.getTotal())+100)+"' height='"+((100 * vertices.getTotal())+100)+"' x = '0' y = '0' style='fill:rgb(10000,10000,10000);stroke-width:1;stroke:rgb(0,0,0)'/>";
+        if(dirigida)
+            cad += "\n" + FLECHA;
         int i = 0;
         for (Vertice<T> v : vertices) {
         	v.setIndice(i++);
@@ -560,7 +1626,7 @@ private void auxiliar1(Vertice<T> v, Lista<VerticeGrafica<T>> lista){
         		x2 = obtenerX(a.vecino);
         		y2 = obtenerY(a.vecino);
 
-			cad += "<line stroke='black' stroke-width='1' x1='"+x1+"' y1='"+y1+"' x2='"+x2+"' y2='"+y2+"' />\n"; 
+			cad += "<line stroke='black' stroke-width='1'"+extremos(new StringBuilder(),x1,y1,x2,y2,22)+" />\n"; 
         	cad += "<text fill='red' font-family='sans-serif' font-size='20' x='"+((x1+x2)/2+20)+"' y='"+((y1+y2)/2-10)+"' text-anchor='middle'>"+a.peso+"</text>\n"; 
 
         	}
@@ -573,18 +1639,298 @@ private void auxiliar1(Vertice<T> v, Lista<VerticeGrafica<T>> lista){
         return cad += "\n</g>\n</svg>";
     }
 
-    private double obtenerX(Vertice<T> v){
-    	double r = 50 * vertices.getTotal();
-    	double z = 50;
-    	return r-(r*Math.sin(((2*Math.PI)/vertices.getTotal())*v.getIndice())) + z;
+    /**
+     * Genera el SVG de la gráfica con el radio de cada vértice y el
+     * tamaño de su etiqueta escalados por su puntaje, por ejemplo el
+     * PageRank o la centralidad de grado calculados con {@link
+     * Centralidad}. Los vértices sin puntaje se dibujan como los de
+     * puntaje mínimo.
+     * @param puntajes el puntaje de cada elemento.
+     * @return el SVG de la gráfica.
+     */
+    public String generaScalableVectorGraphics(Diccionario<T, Double> puntajes) {
+        int n = vertices.getTotal();
+        if(n == 0)
+            return generaScalableVectorGraphics();
+        numera();
+        double[] p = new double[n];
+        double minimo = Double.POSITIVE_INFINITY, maximo = Double.NEGATIVE_INFINITY;
+        for(int i = 0; i < n; i++){
+            T e = porPosicion[i].elemento;
+            p[i] = puntajes.contiene(e) ? puntajes.get(e) : Double.NaN;
+            if(!Double.isNaN(p[i])){
+                minimo = Math.min(minimo, p[i]);
+                maximo = Math.max(maximo, p[i]);
+            }
+        }
+        /* Escala en [0, 1]; si todos valen lo mismo, a la mitad. */
+        double[] escala = new double[n];
+        for(int i = 0; i < n; i++){
+            escala[i] = 0.5;
+            if(maximo > minimo)
+                escala[i] = Double.isNaN(p[i]) ? 0 : (p[i] - minimo) / (maximo - minimo);
+        }
+        int lado = 100 * n + 100;
+        StringBuilder sb = new StringBuilder(256 * n);
+        sb.append("<?xml version='1.0' encoding='UTF-8'?> \n<svg width='")
+          .append(lado).append("' height='").append(lado).append("'> \n <g>");
+        sb.append("\n<rect width='").append(lado).append("' height='")
+          .append(lado).append("' x = '0' y = '0' style='fill:rgb(10000,10000,10000);stroke-width:1;stroke:rgb(0,0,0)'/>");
+        if(dirigida)
+            sb.append('\n').append(FLECHA);
+        for(int i = 0; i < n; i++){
+            for(Arista<T> a : porPosicion[i].aristas){
+                int j = a.vecino.posicion;
+                if(!dirigida && j < i)
+                    continue;
+                sb.append("<line stroke='black' stroke-width='1'");
+                extremos(sb, obtenerX(i, n), obtenerY(i, n), obtenerX(j, n),
+                         obtenerY(j, n), 10 + 30 * escala[j] + 2).append(" />\n");
+            }
+        }
+        for(int i = 0; i < n; i++){
+            double r = 10 + 30 * escala[i], letra = 10 + 20 * escala[i];
+            double x = obtenerX(i, n), y = obtenerY(i, n);
+            sb.append("<circle cx='").append(x).append("' cy='").append(y)
+              .append("' r='").append(r)
+              .append("' stroke='black' stroke-width='3' fill='white'></circle>\n");
+            sb.append("<text fill='black' font-family='sans-serif' font-size='")
+              .append(letra).append("' x='").append(x).append("' y='")
+              .append(y + letra * 0.4).append("' text-anchor='middle'>")
+              .append(porPosicion[i].elemento).append("</text>\n");
+        }
+        return sb.append("\n</g>\n</svg>").toString();
+    }
+
+    /**
+     * Genera el SVG de la gráfica con los vértices agrupados por la
+     * parte que les asigna la partición: cada parte ocupa un arco del
+     * círculo con una región y un color propios. Los vértices que no
+     * están en la partición se dibujan al final, en gris.
+     * @param particion la partición de la gráfica.
+     * @return el SVG de la gráfica.
+     */
+    public String generaScalableVectorGraphics(Particion<T> particion) {
+        int n = vertices.getTotal();
+        if(n == 0)
+            return generaScalableVectorGraphics();
+        numera();
+        int k = particion.getPartes();
+        /* Ordenamos los vértices por parte; los que no tienen parte
+         * van en la parte k. */
+        int[] parte = new int[n], inicioParte = new int[k + 2];
+        for(int i = 0; i < n; i++){
+            T e = porPosicion[i].elemento;
+            parte[i] = particion.contiene(e) ? particion.getParte(e) : k;
+            inicioParte[parte[i] + 1]++;
+        }
+        for(int p = 0; p <= k; p++)
+            inicioParte[p+1] += inicioParte[p];
+        int[] lugar = new int[n], siguiente = inicioParte.clone();
+        for(int i = 0; i < n; i++)
+            lugar[i] = siguiente[parte[i]]++;
+        int lado = 100 * n + 100;
+        double r = 50 * n, c = r + 50;
+        StringBuilder sb = new StringBuilder(256 * n);
+        sb.append("<?xml version='1.0' encoding='UTF-8'?> \n<svg width='")
+          .append(lado).append("' height='").append(lado).append("'> \n <g>");
+        sb.append("\n<rect width='").append(lado).append("' height='")
+          .append(lado).append("' x = '0' y = '0' style='fill:rgb(10000,10000,10000);stroke-width:1;stroke:rgb(0,0,0)'/>\n");
+        if(dirigida)
+            sb.append(FLECHA);
+        for(int p = 0; p <= k; p++){
+            int a = inicioParte[p], b = inicioParte[p+1];
+            if(a == b)
+                continue;
+            String color = colorParte(p, k, 90);
+            if(b - a == n){
+                sb.append("<circle cx='").append(c).append("' cy='").append(c)
+                  .append("' r='").append(r + 40).append("' fill='").append(color)
+                  .append("'></circle>\n");
+                continue;
+            }
+            /* El sector va de medio lugar antes del primero a medio
+             * lugar después del último. */
+            double t1 = 2 * Math.PI * (a - 0.5) / n, t2 = 2 * Math.PI * (b - 0.5) / n;
+            double rr = r + 40;
+            sb.append("<path d='M ").append(c).append(' ').append(c)
+              .append(" L ").append(c - rr * Math.sin(t1)).append(' ').append(c - rr * Math.cos(t1))
+              .append(" A ").append(rr).append(' ').append(rr).append(" 0 ")
+              .append(t2 - t1 > Math.PI ? 1 : 0).append(" 0 ")
+              .append(c - rr * Math.sin(t2)).append(' ').append(c - rr * Math.cos(t2))
+              .append(" Z' fill='").append(color).append("'/>\n");
+        }
+        for(int i = 0; i < n; i++){
+            for(Arista<T> a : porPosicion[i].aristas){
+                int j = a.vecino.posicion;
+                if(!dirigida && j < i)
+                    continue;
+                boolean corte = parte[i] != parte[j];
+                sb.append("<line stroke='").append(corte ? "red" : "black")
+                  .append("' stroke-width='1'");
+                extremos(sb, obtenerX(lugar[i], n), obtenerY(lugar[i], n),
+                         obtenerX(lugar[j], n), obtenerY(lugar[j], n), 22)
+                  .append(" />\n");
+            }
+        }
+        for(int i = 0; i < n; i++){
+            double x = obtenerX(lugar[i], n), y = obtenerY(lugar[i], n);
+            sb.append("<circle cx='").append(x).append("' cy='").append(y)
+              .append("' r='20' stroke='black' stroke-width='3' fill='")
+              .append(colorParte(parte[i], k, 60)).append("'></circle>\n");
+            sb.append("<text fill='black' font-family='sans-serif' font-size='20' x='")
+              .append(x).append("' y='").append(y + 8)
+              .append("' text-anchor='middle'>").append(porPosicion[i].elemento)
+              .append("</text>\n");
+        }
+        return sb.append("\n</g>\n</svg>").toString();
+    }
+
+    /**
+     * Genera un SVG animado del recorrido anotado en la bitácora. Los
+     * vértices descubiertos se pintan de azul claro, los visitados de
+     * naranja y los de la trayectoria final de rojo; las aristas por
+     * las que se descubrió cada vértice aparecen en el paso en que se
+     * usaron. El SVG se genera en tiempo lineal en el tamaño de la
+     * gráfica más el número de eventos.
+     * @param bitacora la bitácora llenada por un recorrido de esta
+     *        gráfica.
+     * @param segundosPorPaso cuántos segundos dura cada paso.
+     * @return el SVG animado del recorrido.
+     * @throws IllegalArgumentException si los segundos por paso no
+     *         son positivos.
+     * @throws IllegalStateException si la bitácora no la llenó esta
+     *         gráfica, o la gráfica se modificó después.
+     */
+    public String generaScalableVectorGraphics(BitacoraRecorrido bitacora,
+                                               double segundosPorPaso) {
+        if(!(segundosPorPaso > 0))
+            throw new IllegalArgumentException();
+        if(bitacora.eventos > 0 &&
+           (bitacora.grafica != this || bitacora.version != version))
+            throw new IllegalStateException();
+        int n = vertices.getTotal();
+        if(n == 0)
+            return generaScalableVectorGraphics();
+        numera();
+        int e = bitacora.eventos;
+        /* Agrupamos los eventos por vértice, conservando su orden. */
+        int[] inicioVertice = new int[n + 1];
+        for(int k = 0; k < e; k++)
+            inicioVertice[bitacora.vertices[k] + 1]++;
+        for(int i = 0; i < n; i++)
+            inicioVertice[i+1] += inicioVertice[i];
+        int[] porVertice = new int[e], siguiente = inicioVertice.clone();
+        for(int k = 0; k < e; k++)
+            porVertice[siguiente[bitacora.vertices[k]]++] = k;
+        int lado = 100 * n + 100;
+        StringBuilder sb = new StringBuilder(256 * n + 160 * e);
+        sb.append("<?xml version='1.0' encoding='UTF-8'?> \n<svg width='")
+          .append(lado).append("' height='").append(lado).append("'> \n <g>");
+        sb.append("\n<rect width='").append(lado).append("' height='")
+          .append(lado).append("' x = '0' y = '0' style='fill:rgb(10000,10000,10000);stroke-width:1;stroke:rgb(0,0,0)'/>\n");
+        if(dirigida)
+            sb.append(FLECHA);
+        for(int i = 0; i < n; i++){
+            for(Arista<T> a : porPosicion[i].aristas){
+                int j = a.vecino.posicion;
+                if(!dirigida && j < i)
+                    continue;
+                sb.append("<line stroke='black' stroke-width='1'");
+                extremos(sb, obtenerX(i, n), obtenerY(i, n), obtenerX(j, n),
+                         obtenerY(j, n), 22).append(" />\n");
+            }
+        }
+        /* Las aristas del recorrido, escondidas hasta su paso. */
+        for(int k = 0; k < e; k++){
+            int i = bitacora.vertices[k], j = bitacora.origenes[k];
+            if(j < 0 || bitacora.tipos[k] == BitacoraRecorrido.VISITADO)
+                continue;
+            boolean trayectoria = bitacora.tipos[k] == BitacoraRecorrido.TRAYECTORIA;
+            sb.append("<line stroke='").append(trayectoria ? "red" : "orange")
+              .append("' stroke-width='").append(trayectoria ? 4 : 2).append('\'');
+            extremos(sb, obtenerX(j, n), obtenerY(j, n), obtenerX(i, n),
+                     obtenerY(i, n), 22)
+              .append(" visibility='hidden'><set attributeName='visibility' to='visible' begin='")
+              .append(bitacora.pasos[k] * segundosPorPaso)
+              .append("s' fill='freeze'/></line>\n");
+        }
+        for(int i = 0; i < n; i++){
+            double x = obtenerX(i, n), y = obtenerY(i, n);
+            sb.append("<circle cx='").append(x).append("' cy='").append(y)
+              .append("' r='20' stroke='black' stroke-width='3' fill='white'>");
+            for(int l = inicioVertice[i]; l < inicioVertice[i+1]; l++){
+                int k = porVertice[l];
+                sb.append("<set attributeName='fill' to='")
+                  .append(colorEvento(bitacora.tipos[k])).append("' begin='")
+                  .append(bitacora.pasos[k] * segundosPorPaso)
+                  .append("s' fill='freeze'/>");
+            }
+            sb.append("</circle>\n");
+            sb.append("<text fill='black' font-family='sans-serif' font-size='20' x='")
+              .append(x).append("' y='").append(y + 8)
+              .append("' text-anchor='middle'>").append(porPosicion[i].elemento)
+              .append("</text>\n");
+        }
+        return sb.append("\n</g>\n</svg>").toString();
+    }
 
+    /* Regresa el color de un tipo de evento de la bitácora. */
+    private static String colorEvento(int tipo){
+        switch(tipo){
+        case BitacoraRecorrido.DESCUBIERTO: return "lightblue";
+        case BitacoraRecorrido.VISITADO:    return "orange";
+        default:                            return "red";
+        }
+    }
+
+    /* Agrega los extremos de una línea de (x1, y1) a (x2, y2). En
+     * una gráfica dirigida la línea termina en el borde del círculo
+     * de radio r del destino, con punta de flecha. */
+    private StringBuilder extremos(StringBuilder sb, double x1, double y1,
+                                   double x2, double y2, double r){
+        if(dirigida){
+            double dx = x2 - x1, dy = y2 - y1, d = Math.sqrt(dx * dx + dy * dy);
+            if(d > r){
+                x2 -= r * dx / d;
+                y2 -= r * dy / d;
+            }
+        }
+        sb.append(" x1='").append(x1).append("' y1='").append(y1)
+          .append("' x2='").append(x2).append("' y2='").append(y2).append('\'');
+        if(dirigida)
+            sb.append(" marker-end='url(#flecha)'");
+        return sb;
+    }
+
+    /* Regresa el color de la parte p de k, con la luminosidad
+     * recibida; la parte k (sin parte) es gris. */
+    private static String colorParte(int p, int k, int luz){
+        if(p == k)
+            return "hsl(0,0%," + luz + "%)";
+        return "hsl(" + (360 * p / k) + ",70%," + luz + "%)";
+    }
+
+    private double obtenerX(Vertice<T> v){
+    	return obtenerX(v.getIndice(), vertices.getTotal());
     }
 
     private double obtenerY(Vertice<T> v){
-    	double r = 50 * vertices.getTotal();
+    	return obtenerY(v.getIndice(), vertices.getTotal());
+    }
+
+    /* Coordenada x del i-ésimo de total vértices en el círculo. */
+    private static double obtenerX(int i, int total){
+    	double r = 50 * total;
     	double z = 50;
-    	return r-(r*Math.cos(((2*Math.PI)/vertices.getTotal())*v.getIndice())) + z;
+    	return r-(r*Math.sin(((2*Math.PI)/total)*i)) + z;
+    }
 
+    /* Coordenada y del i-ésimo de total vértices en el círculo. */
+    private static double obtenerY(int i, int total){
+    	double r = 50 * total;
+    	double z = 50;
+    	return r-(r*Math.cos(((2*Math.PI)/total)*i)) + z;
     }
 
     public String generaScalableVectorGraphics(Lista<VerticeGrafica<T>> l){
@@ -612,18 +1958,4 @@ private void auxiliar1(Vertice<T> v, Lista<VerticeGrafica<T>> lista){
       return nS += "\n</g>\n</svg>";
     }
 
-
-    /* Método auxiliar que hace el regreso desde el vértice destino para dijkstra */
-    private Lista<VerticeGrafica<T>> dijkstra(Vertice<T> vertice,Lista<VerticeGrafica<T>> lista){
-        lista.agregaInicio(vertice);
-        if(vertice.distancia == 0)
-            return lista;
-        Vertice<T> v = null;
-        for(Arista<T> arista : vertice.aristas){
-            if(vertice.distancia - arista.peso == arista.vecino.distancia)
-                 v = arista.vecino;
-        } 
-        return dijkstra(v,lista);
-    }
-
 }
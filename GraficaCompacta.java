@@ -0,0 +1,309 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para gráficas de sólo lectura con almacenamiento
+ * compacto.</p>
+ *
+ * <p>Una {@link Grafica} guarda cada arista como dos objetos
+ * <tt>Arista</tt> más dos entradas de diccionario. Una gráfica
+ * compacta guarda la adyacencia en arreglos primitivos: los índices
+ * de los vecinos de cada vértice, ordenados, y sus pesos como
+ * <tt>double</tt>, como <tt>float</tt>, o nada si todas las aristas
+ * pesan 1 (como las creadas con {@link Grafica#conecta(Object,
+ * Object)}).</p>
+ *
+ * <p>Los métodos {@link #getBytesPorArista} y {@link
+ * #getBytesPorAristaOriginal} estiman la memoria por arista de ambas
+ * representaciones, en una JVM de 64 bits con referencias
+ * comprimidas. La estimación de la gráfica original se calcula al
+ * compactarla, contando sus objetos <tt>Arista</tt>, sus entradas de
+ * diccionario y las ranuras de sus arreglos de adyacencias; el tamaño
+ * de una entrada de diccionario es una estimación fija.</p>
+ */
+public class GraficaCompacta<T> {
+
+    /* Los elementos, indexados por vértice. */
+    private Object[] elementos;
+    /* El índice de cada elemento. */
+    private Diccionario<T, Integer> indices;
+    /* Dónde empiezan los vecinos de cada vértice. */
+    private int[] inicio;
+    /* Los vecinos de cada vértice, ordenados. */
+    private int[] vecinos;
+    /* Los pesos en doble precisión, o null. */
+    private double[] pesosDobles;
+    /* Los pesos en precisión sencilla, o null. */
+    private float[] pesosFlotantes;
+    /* Los bytes estimados de las aristas de la gráfica original. */
+    private long bytesOriginal;
+
+    /**
+     * Construye la versión compacta de la gráfica, con pesos en
+     * doble precisión.
+     * @param grafica la gráfica a compactar.
+     * @throws IllegalArgumentException si la gráfica es dirigida.
+     */
+    public GraficaCompacta(Grafica<T> grafica) {
+        this(grafica, false);
+    }
+
+    /**
+     * Construye la versión compacta de la gráfica. Si todas las
+     * aristas pesan 1, no se guarda ningún peso.
+     * @param grafica la gráfica a compactar.
+     * @param flotantes si los pesos se guardan como <tt>float</tt>.
+     * @throws IllegalArgumentException si la gráfica es dirigida.
+     */
+    public GraficaCompacta(Grafica<T> grafica, boolean flotantes) {
+        if (grafica.esDirigida())
+            throw new IllegalArgumentException();
+        AdyacenciaCompacta<T> csr = grafica.compacta();
+        bytesOriginal = grafica.bytesAristas();
+        int n = csr.getVertices(), m = csr.vecinos.length;
+        elementos = csr.elementos;
+        inicio = csr.inicio;
+        indices = new Diccionario<T, Integer>();
+        for (int i = 0; i < n; i++)
+            indices.agrega(csr.getElemento(i), i);
+        boolean unitarios = true;
+        for (int k = 0; k < m && unitarios; k++)
+            unitarios = csr.pesos[k] == 1;
+        vecinos = new int[m];
+        if (!unitarios && flotantes)
+            pesosFlotantes = new float[m];
+        else if (!unitarios)
+            pesosDobles = new double[m];
+        /* Ordenamos los vecinos de cada vértice, junto con sus
+         * pesos, para buscarlos en tiempo logarítmico. */
+        long[] llaves = new long[16];
+        for (int i = 0; i < n; i++) {
+            int l = 0;
+            if (llaves.length < csr.getGrado(i))
+                llaves = new long[csr.getGrado(i)];
+            for (int k = inicio[i]; k < inicio[i+1]; k++)
+                llaves[l++] = ((long)csr.vecinos[k] << 32) | k;
+            Arrays.sort(llaves, 0, l);
+            for (int a = 0; a < l; a++) {
+                int k = inicio[i] + a, j = (int)llaves[a];
+                vecinos[k] = (int)(llaves[a] >>> 32);
+                if (pesosDobles != null)
+                    pesosDobles[k] = csr.pesos[j];
+                else if (pesosFlotantes != null)
+                    pesosFlotantes[k] = (float)csr.pesos[j];
+            }
+        }
+    }
+
+    /**
+     * Regresa el número de vértices.
+     * @return el número de vértices.
+     */
+    public int getVertices() {
+        return elementos.length;
+    }
+
+    /**
+     * Regresa el número de aristas.
+     * @return el número de aristas.
+     */
+    public int getAristas() {
+        return vecinos.length / 2;
+    }
+
+    /**
+     * Nos dice si el elemento está en la gráfica.
+     * @param elemento el elemento a buscar.
+     * @return <tt>true</tt> si el elemento está en la gráfica,
+     *         <tt>false</tt> en otro caso.
+     */
+    public boolean contiene(T elemento) {
+        return indices.contiene(elemento);
+    }
+
+    /**
+     * Regresa el índice del vértice con el elemento recibido.
+     * @param elemento el elemento.
+     * @return el índice del vértice, entre 0 y el número de vértices
+     *         menos uno.
+     * @throws NoSuchElementException si el elemento no está en la
+     *         gráfica.
+     */
+    public int indiceDe(T elemento) {
+        if (!indices.contiene(elemento))
+            throw new NoSuchElementException();
+        return indices.get(elemento);
+    }
+
+    /**
+     * Regresa el elemento del <em>i</em>-ésimo vértice.
+     * @param i el índice del vértice.
+     * @return el elemento del vértice.
+     * @throws ExcepcionIndiceInvalido si el índice es inválido.
+     */
+    public T getElemento(int i) {
+        revisa(i);
+        @SuppressWarnings("unchecked") T t = (T)elementos[i];
+        return t;
+    }
+
+    /**
+     * Regresa el grado del <em>i</em>-ésimo vértice.
+     * @param i el índice del vértice.
+     * @return el grado del vértice.
+     * @throws ExcepcionIndiceInvalido si el índice es inválido.
+     */
+    public int getGrado(int i) {
+        revisa(i);
+        return inicio[i+1] - inicio[i];
+    }
+
+    /**
+     * Regresa el índice del <em>k</em>-ésimo vecino del
+     * <em>i</em>-ésimo vértice. Los vecinos están ordenados por
+     * índice.
+     * @param i el índice del vértice.
+     * @param k el número de vecino, entre 0 y el grado menos uno.
+     * @return el índice del vecino.
+     * @throws ExcepcionIndiceInvalido si alguno de los índices es
+     *         inválido.
+     */
+    public int getVecino(int i, int k) {
+        return vecinos[arista(i, k)];
+    }
+
+    /**
+     * Regresa el peso de la arista al <em>k</em>-ésimo vecino del
+     * <em>i</em>-ésimo vértice.
+     * @param i el índice del vértice.
+     * @param k el número de vecino, entre 0 y el grado menos uno.
+     * @return el peso de la arista.
+     * @throws ExcepcionIndiceInvalido si alguno de los índices es
+     *         inválido.
+     */
+    public double getPesoVecino(int i, int k) {
+        return peso(arista(i, k));
+    }
+
+    /**
+     * Nos dice si dos elementos están conectados, con búsqueda
+     * binaria entre los vecinos del primero.
+     * @param a el primer elemento.
+     * @param b el segundo elemento.
+     * @return <tt>true</tt> si a y b son vecinos, <tt>false</tt> en
+     *         otro caso.
+     * @throws NoSuchElementException si a o b no son elementos de
+     *         la gráfica.
+     */
+    public boolean sonVecinos(T a, T b) {
+        return busca(indiceDe(a), indiceDe(b)) >= 0;
+    }
+
+    /**
+     * Regresa el peso de la arista entre dos elementos.
+     * @param a el primer elemento.
+     * @param b el segundo elemento.
+     * @return el peso de la arista, o -1 si los elementos no están
+     *         conectados.
+     * @throws NoSuchElementException si a o b no son elementos de
+     *         la gráfica.
+     */
+    public double getPeso(T a, T b) {
+        int k = busca(indiceDe(a), indiceDe(b));
+        return k < 0 ? -1 : peso(k);
+    }
+
+    /**
+     * Nos dice si la gráfica guarda pesos; no los guarda si todas
+     * las aristas pesan 1.
+     * @return <tt>true</tt> si la gráfica guarda pesos,
+     *         <tt>false</tt> en otro caso.
+     */
+    public boolean tienePesos() {
+        return pesosDobles != null || pesosFlotantes != null;
+    }
+
+    /**
+     * Regresa los bytes estimados por arista de la adyacencia
+     * compacta: los dos índices de vecino, los dos pesos si los hay,
+     * y la parte proporcional de los inicios de cada vértice.
+     * @return los bytes estimados por arista.
+     */
+    public double getBytesPorArista() {
+        if (getAristas() == 0)
+            return 0;
+        long bytes = 4L * inicio.length + 4L * vecinos.length;
+        if (pesosDobles != null)
+            bytes += 8L * pesosDobles.length;
+        if (pesosFlotantes != null)
+            bytes += 4L * pesosFlotantes.length;
+        return (double)bytes / getAristas();
+    }
+
+    /**
+     * Regresa los bytes estimados por arista que usaba la {@link
+     * Grafica} original al compactarla.
+     * @return los bytes estimados por arista de la gráfica original.
+     */
+    public double getBytesPorAristaOriginal() {
+        return getAristas() == 0 ? 0 : (double)bytesOriginal / getAristas();
+    }
+
+    /**
+     * Reconstruye una {@link Grafica} con los mismos elementos y
+     * aristas.
+     * @return una gráfica con los mismos elementos y aristas.
+     */
+    public Grafica<T> aGrafica() {
+        Grafica<T> g = new Grafica<T>();
+        int n = getVertices();
+        for (int i = 0; i < n; i++)
+            g.agrega(getElemento(i));
+        @SuppressWarnings("unchecked") T[] a = (T[])new Object[getAristas()];
+        @SuppressWarnings("unchecked") T[] b = (T[])new Object[getAristas()];
+        double[] pesos = new double[getAristas()];
+        int l = 0;
+        for (int i = 0; i < n; i++)
+            for (int k = inicio[i]; k < inicio[i+1]; k++)
+                if (vecinos[k] > i) {
+                    a[l] = getElemento(i);
+                    b[l] = getElemento(vecinos[k]);
+                    pesos[l++] = peso(k);
+                }
+        g.conectaLote(a, b, pesos, l, false);
+        return g;
+    }
+
+    /* Regresa el peso de la k-ésima entrada de la adyacencia. */
+    private double peso(int k) {
+        if (pesosDobles != null)
+            return pesosDobles[k];
+        if (pesosFlotantes != null)
+            return pesosFlotantes[k];
+        return 1;
+    }
+
+    /* Busca j entre los vecinos de i; regresa su posición en la
+     * adyacencia, o -1. */
+    private int busca(int i, int j) {
+        int k = Arrays.binarySearch(vecinos, inicio[i], inicio[i+1], j);
+        return k < 0 ? -1 : k;
+    }
+
+    /* Revisa que el índice de vértice sea válido. */
+    private void revisa(int i) {
+        if (i < 0 || i >= elementos.length)
+            throw new ExcepcionIndiceInvalido();
+    }
+
+    /* Regresa la posición en la adyacencia del k-ésimo vecino del
+     * vértice i. */
+    private int arista(int i, int k) {
+        revisa(i);
+        if (k < 0 || inicio[i] + k >= inicio[i+1])
+            throw new ExcepcionIndiceInvalido();
+        return inicio[i] + k;
+    }
+}
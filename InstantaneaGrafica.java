@@ -0,0 +1,290 @@
+package mx.unam.ciencias.edd;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para instantáneas binarias de gráficas.</p>
+ *
+ * <p>Una instantánea guarda una {@link Grafica} en un archivo con una
+ * tabla de vértices, la adyacencia en forma compacta (CSR) con sus
+ * pesos, y los elementos codificados con un {@link Codificador}. Al
+ * abrirla, el archivo se mapea a memoria, así que la gráfica puede
+ * consultarse sin reconstruirla en el heap:</p>
+ *
+<pre>
+    InstantaneaGrafica.guarda(g, Codificador.CADENAS, archivo);
+    InstantaneaGrafica&lt;String&gt; s =
+        InstantaneaGrafica.abre(archivo, Codificador.CADENAS);
+</pre>
+ *
+ * <p>El formato es: un encabezado con el número mágico, la versión,
+ * el número de vértices y el de aristas dirigidas; los
+ * <em>n</em>+1 inicios de la adyacencia; los vecinos; los pesos; los
+ * <em>n</em>+1 desplazamientos de los elementos, y los bytes de los
+ * elementos. Cada arista aparece dos veces, una por vértice.</p>
+ */
+public class InstantaneaGrafica<T> {
+
+    /* Número mágico de los archivos: "GRAF". */
+    private static final int MAGICO = 0x47524146;
+    /* Versión del formato. */
+    private static final int FORMATO = 1;
+    /* Tamaño del encabezado en bytes. */
+    private static final int ENCABEZADO = 16;
+
+    /* El codificador de los elementos. */
+    private Codificador<T> codificador;
+    /* Número de vértices. */
+    private int n;
+    /* Número de aristas dirigidas (el doble de las aristas). */
+    private int m;
+    /* Inicios de la adyacencia. */
+    private MappedByteBuffer inicio;
+    /* Vecinos de cada vértice. */
+    private MappedByteBuffer vecinos;
+    /* Pesos de las aristas. */
+    private MappedByteBuffer pesos;
+    /* Desplazamientos de los elementos. */
+    private MappedByteBuffer desplazamientos;
+    /* Bytes de los elementos. */
+    private MappedByteBuffer elementos;
+    /* Índice de elementos a vértices; se construye al pedirlo. */
+    private Diccionario<T, Integer> indices;
+
+    /* Construye la instantánea a partir del canal del archivo. */
+    private InstantaneaGrafica(FileChannel canal, Codificador<T> codificador)
+        throws IOException {
+        this.codificador = codificador;
+        ByteBuffer encabezado = canal.map(FileChannel.MapMode.READ_ONLY,
+                                          0, ENCABEZADO);
+        if (encabezado.getInt() != MAGICO || encabezado.getInt() != FORMATO)
+            throw new IOException("El archivo no es una instantánea válida.");
+        n = encabezado.getInt();
+        m = encabezado.getInt();
+        long p = ENCABEZADO;
+        inicio = mapea(canal, p, 4L * (n+1));
+        p += 4L * (n+1);
+        vecinos = mapea(canal, p, 4L * m);
+        p += 4L * m;
+        pesos = mapea(canal, p, 8L * m);
+        p += 8L * m;
+        desplazamientos = mapea(canal, p, 8L * (n+1));
+        p += 8L * (n+1);
+        elementos = mapea(canal, p, desplazamientos.getLong(8 * n));
+    }
+
+    /* Mapea una sección de sólo lectura del archivo. */
+    private static MappedByteBuffer mapea(FileChannel canal,
+                                          long posicion, long tamano)
+        throws IOException {
+        if (tamano > Integer.MAX_VALUE)
+            throw new IOException("Sección demasiado grande para mapearse.");
+        if (posicion + tamano > canal.size())
+            throw new IOException("El archivo está truncado.");
+        return canal.map(FileChannel.MapMode.READ_ONLY, posicion, tamano);
+    }
+
+    /**
+     * Guarda la gráfica en el archivo recibido.
+     * @param grafica la gráfica a guardar.
+     * @param codificador el codificador de los elementos.
+     * @param archivo el archivo donde se guardará la gráfica.
+     * @throws IOException si ocurre un error al escribir.
+     * @throws IllegalArgumentException si la gráfica es dirigida.
+     */
+    public static <T> void guarda(Grafica<T> grafica,
+                                  Codificador<T> codificador,
+                                  File archivo) throws IOException {
+        if (grafica.esDirigida())
+            throw new IllegalArgumentException();
+        AdyacenciaCompacta<T> csr = grafica.compacta();
+        int n = csr.getVertices();
+        byte[][] bytes = new byte[n][];
+        for (int i = 0; i < n; i++)
+            bytes[i] = codificador.codifica(csr.getElemento(i));
+        DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(new FileOutputStream(archivo), 1 << 16));
+        try {
+            out.writeInt(MAGICO);
+            out.writeInt(FORMATO);
+            out.writeInt(n);
+            out.writeInt(csr.vecinos.length);
+            for (int i = 0; i <= n; i++)
+                out.writeInt(csr.inicio[i]);
+            for (int v : csr.vecinos)
+                out.writeInt(v);
+            for (double p : csr.pesos)
+                out.writeDouble(p);
+            long desplazamiento = 0;
+            out.writeLong(desplazamiento);
+            for (int i = 0; i < n; i++) {
+                desplazamiento += bytes[i].length;
+                out.writeLong(desplazamiento);
+            }
+            for (int i = 0; i < n; i++)
+                out.write(bytes[i]);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Abre una instantánea, mapeando el archivo a memoria. El archivo
+     * puede cerrarse en cuanto el método termina; el mapeo sigue
+     * siendo válido.
+     * @param archivo el archivo con la instantánea.
+     * @param codificador el codificador de los elementos.
+     * @return la instantánea guardada en el archivo.
+     * @throws IOException si ocurre un error al leer, o si el archivo
+     *         no es una instantánea válida.
+     */
+    public static <T> InstantaneaGrafica<T> abre(File archivo,
+                                                Codificador<T> codificador)
+        throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(archivo, "r");
+        try {
+            return new InstantaneaGrafica<T>(raf.getChannel(), codificador);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Regresa el número de vértices.
+     * @return el número de vértices.
+     */
+    public int getVertices() {
+        return n;
+    }
+
+    /**
+     * Regresa el número de aristas.
+     * @return el número de aristas.
+     */
+    public int getAristas() {
+        return m / 2;
+    }
+
+    /**
+     * Regresa el elemento del <em>i</em>-ésimo vértice. El elemento
+     * se decodifica cada vez que se pide.
+     * @param i el índice del vértice.
+     * @return el elemento del vértice.
+     * @throws ExcepcionIndiceInvalido si el índice es inválido.
+     */
+    public T getElemento(int i) {
+        revisa(i);
+        int ini = (int)desplazamientos.getLong(8 * i);
+        int fin = (int)desplazamientos.getLong(8 * (i+1));
+        ByteBuffer b = elementos.duplicate();
+        b.limit(fin);
+        b.position(ini);
+        return codificador.decodifica(b.slice());
+    }
+
+    /**
+     * Regresa el grado del <em>i</em>-ésimo vértice.
+     * @param i el índice del vértice.
+     * @return el grado del vértice.
+     * @throws ExcepcionIndiceInvalido si el índice es inválido.
+     */
+    public int getGrado(int i) {
+        revisa(i);
+        return inicio.getInt(4 * (i+1)) - inicio.getInt(4 * i);
+    }
+
+    /**
+     * Regresa el índice del <em>k</em>-ésimo vecino del
+     * <em>i</em>-ésimo vértice.
+     * @param i el índice del vértice.
+     * @param k el número de vecino, entre 0 y el grado menos uno.
+     * @return el índice del vecino.
+     * @throws ExcepcionIndiceInvalido si alguno de los índices es
+     *         inválido.
+     */
+    public int getVecino(int i, int k) {
+        return vecinos.getInt(4 * arista(i, k));
+    }
+
+    /**
+     * Regresa el peso de la arista al <em>k</em>-ésimo vecino del
+     * <em>i</em>-ésimo vértice.
+     * @param i el índice del vértice.
+     * @param k el número de vecino, entre 0 y el grado menos uno.
+     * @return el peso de la arista.
+     * @throws ExcepcionIndiceInvalido si alguno de los índices es
+     *         inválido.
+     */
+    public double getPeso(int i, int k) {
+        return pesos.getDouble(8 * arista(i, k));
+    }
+
+    /**
+     * Regresa el índice del vértice con el elemento recibido. La
+     * primera llamada decodifica todos los elementos para construir
+     * el índice.
+     * @param elemento el elemento a buscar.
+     * @return el índice del vértice con el elemento.
+     * @throws NoSuchElementException si el elemento no está en la
+     *         instantánea.
+     */
+    public int indiceDe(T elemento) {
+        if (indices == null) {
+            indices = new Diccionario<T, Integer>();
+            for (int i = 0; i < n; i++)
+                indices.agrega(getElemento(i), i);
+        }
+        return indices.get(elemento);
+    }
+
+    /**
+     * Reconstruye la gráfica completa en el heap.
+     * @return una gráfica con los mismos elementos y aristas.
+     */
+    public Grafica<T> aGrafica() {
+        Grafica<T> g = new Grafica<T>();
+        Object[] e = new Object[n];
+        for (int i = 0; i < n; i++) {
+            @SuppressWarnings("unchecked") T t = (T)(e[i] = getElemento(i));
+            g.agrega(t);
+        }
+        for (int i = 0; i < n; i++) {
+            @SuppressWarnings("unchecked") T a = (T)e[i];
+            int fin = inicio.getInt(4 * (i+1));
+            for (int k = inicio.getInt(4 * i); k < fin; k++) {
+                int j = vecinos.getInt(4 * k);
+                /* Cada arista está dos veces; la agregamos una. */
+                if (j > i) {
+                    @SuppressWarnings("unchecked") T b = (T)e[j];
+                    g.conecta(a, b, pesos.getDouble(8 * k));
+                }
+            }
+        }
+        return g;
+    }
+
+    /* Revisa que el índice de vértice sea válido. */
+    private void revisa(int i) {
+        if (i < 0 || i >= n)
+            throw new ExcepcionIndiceInvalido();
+    }
+
+    /* Regresa la posición en la adyacencia del k-ésimo vecino del
+     * vértice i. */
+    private int arista(int i, int k) {
+        revisa(i);
+        int ini = inicio.getInt(4 * i);
+        if (k < 0 || ini + k >= inicio.getInt(4 * (i+1)))
+            throw new ExcepcionIndiceInvalido();
+        return ini + k;
+    }
+}
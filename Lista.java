@@ -1,7 +1,17 @@
 package mx.unam.ciencias.edd;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * <p>Clase genérica para listas doblemente ligadas.</p>
@@ -124,12 +134,230 @@ public class Lista<T> implements Iterable<T> {
         }
     }
 
+    /* Clase Spliterador privada para recorrer la lista en paralelo. */
+    private class Spliterador implements Spliterator<T> {
+
+        /* El siguiente nodo a visitar. */
+        private Nodo<T> nodo;
+        /* Cuántos nodos nos faltan por visitar. */
+        private int restantes;
+
+        /* Crea un spliterador para restantes nodos a partir de nodo. */
+        public Spliterador(Nodo<T> nodo, int restantes) {
+            this.nodo = nodo;
+            this.restantes = restantes;
+        }
+
+        /* Visita el siguiente elemento, si lo hay. */
+        @Override public boolean tryAdvance(Consumer<? super T> accion) {
+            if (restantes == 0)
+                return false;
+            accion.accept(nodo.elemento);
+            nodo = nodo.siguiente;
+            restantes--;
+            return true;
+        }
+
+        /* Visita los elementos restantes. */
+        @Override public void forEachRemaining(Consumer<? super T> accion) {
+            Nodo<T> n = nodo;
+            for (int i = 0; i < restantes; i++) {
+                accion.accept(n.elemento);
+                n = n.siguiente;
+            }
+            nodo = n;
+            restantes = 0;
+        }
+
+        /* Parte los nodos restantes a la mitad; regresa la primera
+         * mitad y se queda con la segunda. Recorrer hasta la mitad
+         * cuesta lo mismo que procesarla, así que no partimos
+         * pedazos chicos. */
+        @Override public Spliterator<T> trySplit() {
+            if (restantes < 2 * MINIMO_PARTIR)
+                return null;
+            int mitad = restantes / 2;
+            Spliterador prefijo = new Spliterador(nodo, mitad);
+            for (int i = 0; i < mitad; i++)
+                nodo = nodo.siguiente;
+            restantes -= mitad;
+            return prefijo;
+        }
+
+        /* Regresa el número exacto de elementos restantes. */
+        @Override public long estimateSize() {
+            return restantes;
+        }
+
+        /* Los elementos tienen orden y sabemos cuántos son. */
+        @Override public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED;
+        }
+    }
+
+    /* Tarea para ordenar en paralelo una cadena de nodos: la parte a
+     * la mitad, ordena las mitades en paralelo y las mezcla. */
+    private class Ordenamiento extends RecursiveTask<Nodo<T>> {
+
+        /* La tarea nunca se serializa, pero RecursiveTask lo pide. */
+        private static final long serialVersionUID = 1L;
+
+        /* El primer nodo de la cadena. */
+        private Nodo<T> inicio;
+        /* El número de nodos de la cadena. */
+        private int n;
+        /* El comparador para ordenar. */
+        private Comparator<? super T> comparador;
+
+        /* Crea la tarea para los n nodos a partir de inicio. */
+        public Ordenamiento(Nodo<T> inicio, int n,
+                            Comparator<? super T> comparador) {
+            this.inicio = inicio;
+            this.n = n;
+            this.comparador = comparador;
+        }
+
+        /* Regresa la cabeza de la cadena ordenada. */
+        @Override protected Nodo<T> compute() {
+            if (n <= MINIMO_ORDENAR)
+                return ordenaCadena(inicio, comparador);
+            int mitad = n / 2;
+            Nodo<T> m = inicio;
+            for (int i = 1; i < mitad; i++)
+                m = m.siguiente;
+            Nodo<T> derecha = m.siguiente;
+            m.siguiente = null;
+            Ordenamiento izquierda = new Ordenamiento(inicio, mitad, comparador);
+            izquierda.fork();
+            Nodo<T> b = new Ordenamiento(derecha, n - mitad, comparador).compute();
+            Nodo<T> a = izquierda.join();
+            return mezcla(new Nodo<T>(null), a, b, comparador);
+        }
+    }
+
+    /**
+     * Clase para vistas de sólo lectura de un rango de la lista. La
+     * vista comparte los nodos de la lista, así que crearla no copia
+     * nada; la lista no debe modificarse mientras se use la vista.
+     */
+    public class Sublista implements Iterable<T> {
+
+        /* El primer nodo de la vista. */
+        private Nodo<T> primero;
+        /* El último nodo de la vista. */
+        private Nodo<T> ultimo;
+        /* Número de elementos en la vista. */
+        private int longitud;
+
+        /* Crea una vista de longitud nodos, de primero a ultimo. */
+        private Sublista(Nodo<T> primero, Nodo<T> ultimo, int longitud) {
+            this.primero = primero;
+            this.ultimo = ultimo;
+            this.longitud = longitud;
+        }
+
+        /**
+         * Regresa la longitud de la vista.
+         * @return el número de elementos en la vista.
+         */
+        public int getLongitud() {
+            return longitud;
+        }
+
+        /**
+         * Regresa el <em>i</em>-ésimo elemento de la vista, caminando
+         * desde el extremo más cercano.
+         * @param i el índice del elemento que queremos.
+         * @return el <em>i</em>-ésimo elemento de la vista.
+         * @throws ExcepcionIndiceInvalido si el índice recibido es
+         *         menor que cero, o mayor que el número de elementos
+         *         en la vista menos uno.
+         */
+        public T get(int i) {
+            if (i < 0 || i >= longitud)
+                throw new ExcepcionIndiceInvalido();
+            Nodo<T> n;
+            if (i < longitud - 1 - i) {
+                n = primero;
+                for (int x = 0; x < i; x++)
+                    n = n.siguiente;
+            } else {
+                n = ultimo;
+                for (int x = longitud - 1; x > i; x--)
+                    n = n.anterior;
+            }
+            return n.elemento;
+        }
+
+        /**
+         * Regresa una {@link Lista} nueva con los elementos de la
+         * vista.
+         * @return una copia de los elementos de la vista.
+         */
+        public Lista<T> copia() {
+            Lista<T> l = new Lista<T>();
+            Nodo<T> n = primero;
+            for (int x = 0; x < longitud; x++) {
+                l.agregaFinal(n.elemento);
+                n = n.siguiente;
+            }
+            return l;
+        }
+
+        /**
+         * Regresa un iterador para recorrer la vista.
+         * @return un iterador para recorrer la vista.
+         */
+        @Override public Iterator<T> iterator() {
+            return Spliterators.iterator(spliterator());
+        }
+
+        /**
+         * Regresa un {@link Spliterator} para recorrer la vista.
+         * @return un spliterator para recorrer la vista.
+         */
+        @Override public Spliterator<T> spliterator() {
+            return new Spliterador(primero, longitud);
+        }
+
+        /**
+         * Regresa una representación en cadena de la vista.
+         * @return una representación en cadena de la vista.
+         */
+        @Override public String toString() {
+            StringBuilder sb = new StringBuilder("[");
+            Nodo<T> n = primero;
+            for (int x = 0; x < longitud; x++) {
+                if (x > 0)
+                    sb.append(", ");
+                sb.append(n.elemento);
+                n = n.siguiente;
+            }
+            return sb.append("]").toString();
+        }
+    }
+
+    /* Tamaño mínimo de un pedazo al partir la lista. */
+    private static final int MINIMO_PARTIR = 1 << 10;
+    /* Tamaño máximo de un pedazo que se ordena sin partirlo. */
+    private static final int MINIMO_ORDENAR = 1 << 13;
+    /* Ranuras para ordenar; alcanzan para 2^64 corridas. */
+    private static final int RANURAS = 64;
+
     /* Primer elemento de la lista. */
     private Nodo<T> cabeza;
     /* Último elemento de la lista. */
     private Nodo<T> rabo;
     /* Número de elementos en la lista. */
     private int longitud;
+    /* El último nodo visitado por get, o null. */
+    private Nodo<T> dedo;
+    /* El índice del último nodo visitado por get. */
+    private int indiceDedo;
+    /* El código de dispersión calculado, si es válido. */
+    private int dispersion;
+    /* Si el código de dispersión calculado sigue siendo válido. */
+    private boolean dispersionValida;
 
    /**
      * Regresa una copia de la lista recibida, pero ordenada. La
@@ -140,103 +368,147 @@ public class Lista<T> implements Iterable<T> {
      */
     public static <T extends Comparable<T>>
         Lista<T> mergeSort(Lista<T> l) {
+            Lista<T> copia = l.copia();
             //lista de tamaño 1 o 0 ordenada por definicion
             if(l.getLongitud() < 2)
-                return l.copia();
-            
-            Lista<T> l1 = new Lista<T>();
-            Lista<T>.Nodo<T> n = l.cabeza;
-            int i = 0, j = l.getLongitud()/2;
-            while(i < j){
-                if(n.siguiente != null){
-                l1.agregaFinal(n.elemento);
-            n = n.siguiente;
-            i++;
-                }else
-                    break;
-            }
-       
-            Lista<T> l2 = new Lista<T>();
-            Lista<T>.Nodo<T> nE = l.nodoEnMedio(l);
-            i = 0;
-            while (i < j){
-                if(nE.siguiente != null){
-                    l2.agregaFinal(nE.elemento);
-                    nE = nE.siguiente;
-                    i++;
-                }else
-                    break;
-            }
-            l2.agregaFinal(l.rabo.elemento);
-            l1 = mergeSort(l1);
-            l2 = mergeSort(l2); 
-            return l.mezcla(l1,l2);
+                return copia;
+            copia.ordena((a, b) -> a.compareTo(b));
+            return copia;
     }
 
-    /*
-    * Metodo privado auxiliar iterativo para obtener el nodo que está a la mitad
-    * Si la longitud es par regresa el nodo antes de la mitad
-    * SI la longitud es impar regresa el nodo que esta justo a la mitad
-    * @param La lista en la que se buscará el nodo central.
-    */
-    private Nodo<T> nodoEnMedio(Lista<T> l){
-       Nodo<T> n = l.cabeza;
-        if(n == null)
-            return n;
-        int i = 0, j = l.getLongitud()/2;
-        while(i < j){
-                n = n.siguiente;
-                i++;
-        }
-        return n;
+    /**
+     * Ordena la lista con el comparador recibido. El ordenamiento es
+     * estable y no crea nodos: es un mergesort natural de abajo hacia
+     * arriba que reencadena los nodos existentes, aprovechando las
+     * corridas que ya están en orden (o en orden inverso), con
+     * memoria adicional constante: un arreglo fijo de 64 cadenas
+     * pendientes.
+     * @param comparador el comparador para ordenar los elementos.
+     */
+    public void ordena(Comparator<? super T> comparador) {
+        if(longitud < 2)
+            return;
+        enlaza(ordenaCadena(cabeza, comparador));
     }
 
     /**
-    * Metodo privado auxiliar recursivo para obtener el nodo que está a la mitad
-    * Si la longitud es par regresa el nodo antes de la mitad
-    * Si la longitud es impar regresa el nodo que esta justo a la mitad
-    * @param La lista en la que se buscará el nodo central.
-    * @param n la cabeza de la lista
-    * @param i indice para empezar a comparar con respecto a la longitud
-    */
-    private Nodo<T> nodoEnMedio(Nodo<T> n,Lista<T> l, int i,int j){
-        if(n == null)
-            return n;
-        if(i == j)
-            return n;
-        return nodoEnMedio(n.siguiente,l,++i,j);
+     * Ordena la lista con el comparador recibido, en paralelo. La
+     * lista se parte en pedazos que se ordenan como en {@link
+     * #ordena} en el {@link ForkJoinPool} común, y los pedazos
+     * ordenados se mezclan de dos en dos. El ordenamiento es estable.
+     * @param comparador el comparador para ordenar los elementos.
+     */
+    public void ordenaParalelo(Comparator<? super T> comparador) {
+        if(longitud < 2)
+            return;
+        enlaza(ForkJoinPool.commonPool().invoke(
+                   new Ordenamiento(cabeza, longitud, comparador)));
     }
 
-    /**
-    * Metodo auxiliar privado para mezclar los elementos de las listas
-    * @param l1 que recibe la lista izquierda
-    * @param l2 que recibe la lista derecha
-    */
-    private <T extends Comparable<T>> 
-        Lista<T> mezcla(Lista<T> l1, Lista<T> l2){
-            Lista<T> l = new Lista<T>();
-            Lista<T>.Nodo<T> n1 = l1.cabeza;
-            Lista<T>.Nodo<T> n2 = l2.cabeza;
-            while (n1!= null && n2!= null){
-                if(n1.elemento.compareTo(n2.elemento) < 0){
-                    l.agregaFinal(n1.elemento);
-                    n1 = n1.siguiente;
-                }else{
-                    l.agregaFinal(n2.elemento);
-                    n2 = n2.siguiente;
-                }
+    /* Ordena la cadena de nodos (ligada sólo por siguiente) que
+     * empieza en inicio, y regresa su nueva cabeza. Las corridas se
+     * van mezclando como en un contador binario: la ranura i guarda
+     * la mezcla de 2^i corridas, así que cada mezcla es entre cadenas
+     * parecidas y recientes, y basta un arreglo fijo de ranuras. */
+    private Nodo<T> ordenaCadena(Nodo<T> inicio,
+                                 Comparator<? super T> comparador) {
+        Nodo<T> centinela = new Nodo<T>(null);
+        @SuppressWarnings("unchecked") Nodo<T>[] ranuras =
+            (Nodo<T>[])new Lista<?>.Nodo<?>[RANURAS];
+        Nodo<T> p = volteaDescendentes(centinela, inicio, comparador);
+        while(p != null){
+            Nodo<T> corrida = p, fin = finCorrida(p, comparador);
+            p = fin.siguiente;
+            fin.siguiente = null;
+            /* Las ranuras más altas tienen los elementos anteriores. */
+            int i = 0;
+            while(ranuras[i] != null){
+                corrida = mezcla(centinela, ranuras[i], corrida, comparador);
+                ranuras[i++] = null;
             }
-            while(n1 != null){
-                l.agregaFinal(n1.elemento);
-                n1 =n1.siguiente;
+            ranuras[i] = corrida;
+        }
+        Nodo<T> ordenada = null;
+        for(int i = 0; i < RANURAS; i++)
+            if(ranuras[i] != null)
+                ordenada = ordenada == null ? ranuras[i] :
+                    mezcla(centinela, ranuras[i], ordenada, comparador);
+        return ordenada;
+    }
+
+    /* Voltea en su lugar las corridas estrictamente descendentes de
+     * la cadena, para que el mergesort las aproveche; regresa la
+     * nueva cabeza de la cadena. Como son estrictas, voltearlas no
+     * rompe la estabilidad. */
+    private Nodo<T> volteaDescendentes(Nodo<T> centinela, Nodo<T> p,
+                                       Comparator<? super T> comparador) {
+        Nodo<T> cola = centinela;
+        while(p != null){
+            Nodo<T> q = p.siguiente;
+            if(q != null && comparador.compare(q.elemento, p.elemento) < 0){
+                Nodo<T> volteada = p, previo = p;
+                while(q != null && comparador.compare(q.elemento, previo.elemento) < 0){
+                    Nodo<T> siguiente = q.siguiente;
+                    q.siguiente = volteada;
+                    volteada = previo = q;
+                    q = siguiente;
+                }
+                cola.siguiente = volteada;
+                cola = p;
+                p = q;
+            }else{
+                cola.siguiente = p;
+                cola = finCorrida(p, comparador);
+                p = cola.siguiente;
             }
-            while(n2 != null){
-                l.agregaFinal(n2.elemento);
-                n2 = n2.siguiente;
+        }
+        cola.siguiente = null;
+        return centinela.siguiente;
+    }
+
+    /* Regresa el último nodo de la corrida no descendente que empieza
+     * en n. */
+    private Nodo<T> finCorrida(Nodo<T> n, Comparator<? super T> comparador) {
+        while(n.siguiente != null &&
+              comparador.compare(n.siguiente.elemento, n.elemento) >= 0)
+            n = n.siguiente;
+        return n;
+    }
+
+    /* Mezcla las cadenas ordenadas a y b, tomando de a en los
+     * empates, y regresa la cabeza de la mezcla; el centinela sólo
+     * sirve para no tratar aparte al primer nodo. */
+    private Nodo<T> mezcla(Nodo<T> centinela, Nodo<T> a, Nodo<T> b,
+                           Comparator<? super T> comparador) {
+        Nodo<T> cola = centinela;
+        while(a != null && b != null){
+            if(comparador.compare(b.elemento, a.elemento) < 0){
+                cola.siguiente = b;
+                cola = b;
+                b = b.siguiente;
+            }else{
+                cola.siguiente = a;
+                cola = a;
+                a = a.siguiente;
             }
-            return l;
-    }   
-    
+        }
+        cola.siguiente = a != null ? a : b;
+        return centinela.siguiente;
+    }
+
+    /* Hace a la cadena que empieza en inicio el contenido de la
+     * lista, arreglando los anteriores y el rabo. */
+    private void enlaza(Nodo<T> inicio) {
+        Nodo<T> anterior = null;
+        for(Nodo<T> n = inicio; n != null; n = n.siguiente){
+            n.anterior = anterior;
+            anterior = n;
+        }
+        cabeza = inicio;
+        rabo = anterior;
+        dedo = null;
+        dispersionValida = false;
+    }
 
     /**
      * Busca un elemento en una lista ordenada. La lista recibida
@@ -252,20 +524,16 @@ public class Lista<T> implements Iterable<T> {
         boolean busquedaLineal(Lista<T> l, T e) { 
             if(l == null)
                 return false;
-            boolean encontrado = false;
-        Lista<T>.Nodo<T> n = l.cabeza;
-            
-            while(n != null){
-                if(n.siguiente != null){   
-                    encontrado = n.elemento.compareTo(e) == 0;
-                    if(encontrado){      
-                  break;
-                    }
-                    n = n.siguiente;
-                } else
-                break;
+            /* Como está ordenada, podemos parar en el primer elemento
+             * mayor que e. */
+            for(Lista<T>.Nodo<T> n = l.cabeza; n != null; n = n.siguiente){
+                int c = n.elemento.compareTo(e);
+                if(c == 0)
+                    return true;
+                if(c > 0)
+                    return false;
             }
-            return encontrado;
+            return false;
     }
 
     /**
@@ -295,6 +563,7 @@ public class Lista<T> implements Iterable<T> {
         rabo = n;
        }
        longitud++;
+       dispersionValida = false;
     }
 
     /**
@@ -315,7 +584,10 @@ public class Lista<T> implements Iterable<T> {
             n.siguiente = cabeza;
             cabeza = n;
         }
+        /* El dedo se recorre un lugar. */
+        indiceDedo++;
         longitud++;
+        dispersionValida = false;
     }
     /**
     *Método auxiliar, busca un nodo
@@ -324,13 +596,10 @@ public class Lista<T> implements Iterable<T> {
     *@return Nodo
     */
     public Nodo<T> buscaNodo(Nodo<T> nodo, T elemento){
-        if(nodo == null)
-            return null;
-        else
-            if(nodo.elemento.equals(elemento))
-                return nodo;
-            else
-            return buscaNodo(nodo.siguiente , elemento);
+        /* Iterativo, para no desbordar la pila en listas largas. */
+        while(nodo != null && !nodo.elemento.equals(elemento))
+            nodo = nodo.siguiente;
+        return nodo;
     }
     /**
      * Elimina un elemento de la lista. Si el elemento no está
@@ -338,7 +607,8 @@ public class Lista<T> implements Iterable<T> {
      * @param elemento el elemento a eliminar.
      */
     public void elimina(T elemento) {
-        
+        dedo = null;
+        dispersionValida = false;
         Nodo<T> n = buscaNodo(cabeza, elemento);
         if(n == null){
            return;
@@ -373,6 +643,8 @@ public class Lista<T> implements Iterable<T> {
      * @throws NoSuchElementException si la lista es vacía.
      */
     public T eliminaPrimero() {
+        dedo = null;
+        dispersionValida = false;
         if(cabeza == null){
             throw new NoSuchElementException();
         }
@@ -403,6 +675,8 @@ public class Lista<T> implements Iterable<T> {
      */
     public T eliminaUltimo() {
         
+        dedo = null;
+        dispersionValida = false;
         if(rabo == null){
             throw new NoSuchElementException();
         }
@@ -485,9 +759,97 @@ public class Lista<T> implements Iterable<T> {
      */
     public void limpia() {
         cabeza = rabo = null;
+        dedo = null;
+        dispersionValida = false;
         longitud = 0;
     }
 
+    /**
+     * Agrega al final de la lista los elementos de la lista recibida,
+     * en tiempo constante: los nodos de la lista recibida se ligan
+     * sin copiarlos, y la lista recibida queda vacía.
+     * @param lista la lista cuyos elementos se agregan.
+     * @throws IllegalArgumentException si la lista recibida es la
+     *         misma que manda llamar el método.
+     */
+    public void concatena(Lista<T> lista) {
+        if (lista == this)
+            throw new IllegalArgumentException();
+        if (lista.cabeza == null)
+            return;
+        if (rabo == null) {
+            cabeza = lista.cabeza;
+        } else {
+            rabo.siguiente = lista.cabeza;
+            lista.cabeza.anterior = rabo;
+        }
+        rabo = lista.rabo;
+        longitud += lista.longitud;
+        dispersionValida = false;
+        lista.limpia();
+    }
+
+    /**
+     * Corta de la lista los elementos con índices desde <em>i</em>
+     * hasta <em>j</em> - 1, y los regresa en una lista nueva. Los
+     * nodos se mueven sin copiarlos; sólo se camina hasta los
+     * extremos del rango.
+     * @param i el índice del primer elemento a cortar.
+     * @param j el índice siguiente al último elemento a cortar.
+     * @return una lista con los elementos cortados.
+     * @throws ExcepcionIndiceInvalido si <em>i</em> es menor que
+     *         cero, <em>j</em> es mayor que el número de elementos en
+     *         la lista, o <em>i</em> es mayor que <em>j</em>.
+     */
+    public Lista<T> corta(int i, int j) {
+        if (i < 0 || j > longitud || i > j)
+            throw new ExcepcionIndiceInvalido();
+        Lista<T> l = new Lista<T>();
+        if (i == j)
+            return l;
+        Nodo<T> a = nodo(i);
+        Nodo<T> b = nodo(j - 1);
+        if (a.anterior == null)
+            cabeza = b.siguiente;
+        else
+            a.anterior.siguiente = b.siguiente;
+        if (b.siguiente == null)
+            rabo = a.anterior;
+        else
+            b.siguiente.anterior = a.anterior;
+        /* El dedo se queda antes del corte, donde sigue valiendo. */
+        dedo = a.anterior;
+        indiceDedo = i - 1;
+        a.anterior = b.siguiente = null;
+        l.cabeza = a;
+        l.rabo = b;
+        l.longitud = j - i;
+        longitud -= j - i;
+        dispersionValida = false;
+        return l;
+    }
+
+    /**
+     * Regresa una vista de sólo lectura de los elementos con índices
+     * desde <em>i</em> hasta <em>j</em> - 1. La vista comparte los
+     * nodos de la lista, así que no copia nada; la lista no debe
+     * modificarse mientras se use la vista.
+     * @param i el índice del primer elemento de la vista.
+     * @param j el índice siguiente al último elemento de la vista.
+     * @return una vista de los elementos en el rango.
+     * @throws ExcepcionIndiceInvalido si <em>i</em> es menor que
+     *         cero, <em>j</em> es mayor que el número de elementos en
+     *         la lista, o <em>i</em> es mayor que <em>j</em>.
+     */
+    public Sublista sublista(int i, int j) {
+        if (i < 0 || j > longitud || i > j)
+            throw new ExcepcionIndiceInvalido();
+        if (i == j)
+            return new Sublista(null, null, 0);
+        Nodo<T> a = nodo(i);
+        return new Sublista(a, nodo(j - 1), j - i);
+    }
+
     /**
      * Regresa el primer elemento de la lista.
      * @return el primer elemento de la lista.
@@ -514,7 +876,11 @@ public class Lista<T> implements Iterable<T> {
     }
 
     /**
-     * Regresa el <em>i</em>-ésimo elemento de la lista.
+     * Regresa el <em>i</em>-ésimo elemento de la lista. La lista
+     * recuerda el último nodo al que se accedió, y camina desde la
+     * cabeza, el rabo o ese nodo, lo que esté más cerca; así recorrer
+     * la lista por índices consecutivos o cercanos cuesta tiempo
+     * constante por elemento.
      * @param i el índice del elemento que queremos.
      * @return el <em>i</em>-ésimo elemento de la lista, si
      *         <em>i</em> es mayor o igual que cero y menor que el
@@ -524,29 +890,35 @@ public class Lista<T> implements Iterable<T> {
      *         la lista menos uno.
      */
     public T get(int i) {
-        T t = null;
-        Nodo<T> n = cabeza;
-        int x = 0;
         if(i< 0 || i > getLongitud()-1)
             throw new ExcepcionIndiceInvalido();
-        
-        else
-            if(i == 0){
-                return cabeza.elemento;
-            }
-            else 
-                if(i == getLongitud()-1){
-                    return rabo.elemento;
-                }
-            
-            while(x<i) {
-            if(n != null)
-                   n = n.siguiente;
-                x++;
-            }  
-             t = n.elemento;
+        return nodo(i).elemento;
+    }
 
-        return t;
+    /* Regresa el i-ésimo nodo, caminando desde la cabeza, el rabo o
+     * el dedo, lo que esté más cerca, y deja ahí el dedo. */
+    private Nodo<T> nodo(int i) {
+        Nodo<T> n = cabeza;
+        int x = 0;
+        if(longitud - 1 - i < i){
+            n = rabo;
+            x = longitud - 1;
+        }
+        if(dedo != null && Math.abs(indiceDedo - i) < Math.abs(x - i)){
+            n = dedo;
+            x = indiceDedo;
+        }
+        while(x < i){
+            n = n.siguiente;
+            x++;
+        }
+        while(x > i){
+            n = n.anterior;
+            x--;
+        }
+        dedo = n;
+        indiceDedo = i;
+        return n;
     }
 
     /**
@@ -574,35 +946,41 @@ public class Lista<T> implements Iterable<T> {
     }
 
     /**
-     * Nos dice si la lista es igual al objeto recibido.
+     * Nos dice si la lista es igual al objeto recibido. Si las listas
+     * tienen longitudes distintas, no se recorren.
      * @param o el objeto con el que hay que comparar.
      * @return <tt>true</tt> si la lista es igual al objeto
      *         recibido; <tt>false</tt> en otro caso.
      */
     @Override public boolean equals(Object o) {
-       if(o == null){
+        if(o == this)
+            return true;
+        if(o == null || getClass() != o.getClass())
             return false;
-        }
-        else
-            if(getClass() != o.getClass()){
+        @SuppressWarnings("unchecked") Lista<T> l = (Lista<T>) o;
+        if(longitud != l.longitud)
+            return false;
+        for(Nodo<T> n1 = cabeza, n2 = l.cabeza; n1 != null; n1 = n1.siguiente, n2 = n2.siguiente)
+            if(!n1.elemento.equals(n2.elemento))
                 return false;
-            }
-            @SuppressWarnings("unchecked") Lista<T> l = (Lista<T>) o;
-      
-         return sonIguales(cabeza, l.cabeza);
+        return true;
     }
 
-    private boolean sonIguales(Nodo<T> n1, Nodo<T> n2){
-        if(n1 == null && n2 == null){
-            return true;
-        }
-        else
-            if(n1 == null || n2 == null){
-            return false;
+    /**
+     * Regresa un código de dispersión para la lista. El código se
+     * guarda hasta que la lista se modifica; si se modifican los
+     * elementos mismos, el código guardado no cambia.
+     * @return un código de dispersión para la lista.
+     */
+    @Override public int hashCode() {
+        if(!dispersionValida){
+            int h = 1;
+            for(Nodo<T> n = cabeza; n != null; n = n.siguiente)
+                h = 31 * h + (n.elemento == null ? 0 : n.elemento.hashCode());
+            dispersion = h;
+            dispersionValida = true;
         }
-        else
-            return n1.elemento.equals(n2.elemento) && sonIguales(n1.siguiente, n2.siguiente);
-
+        return dispersion;
     }
 
     /**
@@ -610,16 +988,31 @@ public class Lista<T> implements Iterable<T> {
      * @return una representación en cadena de la lista.
      */
     @Override public String toString() {
-            
-            if(cabeza == null)
-                return "[]";
-            Nodo<T> n = cabeza.siguiente;
-            String cadena = "";
-            while(n != null){
-                cadena += ", " + n.elemento;
-                n  = n.siguiente;
-            }
-            return "[" + cabeza.elemento + cadena + "]";
+        StringBuilder sb = new StringBuilder((int)Math.min(2L + 4L * longitud, 1 << 20));
+        try {
+            escribe(sb);
+        } catch (IOException ioe) {
+            /* Un StringBuilder nunca lanza IOException. */
+            throw new UncheckedIOException(ioe);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Escribe la representación en cadena de la lista en el destino
+     * recibido, elemento por elemento, sin construirla completa en
+     * memoria.
+     * @param destino dónde escribir la representación.
+     * @throws IOException si el destino lanza la excepción.
+     */
+    public void escribe(Appendable destino) throws IOException {
+        destino.append('[');
+        for(Nodo<T> n = cabeza; n != null; n = n.siguiente){
+            if(n != cabeza)
+                destino.append(", ");
+            destino.append(String.valueOf(n.elemento));
+        }
+        destino.append(']');
     }
 
      public String generaScalableVectorGraphics() {
@@ -651,6 +1044,32 @@ public class Lista<T> implements Iterable<T> {
         return iteradorLista();
     }
 
+    /**
+     * Regresa un {@link Spliterator} para recorrer la lista, que
+     * sabe cuántos elementos tiene y puede partirse para recorrerla
+     * en paralelo. La lista no debe modificarse mientras se recorre.
+     * @return un spliterator para recorrer la lista.
+     */
+    @Override public Spliterator<T> spliterator() {
+        return new Spliterador(cabeza, longitud);
+    }
+
+    /**
+     * Regresa un flujo secuencial con los elementos de la lista.
+     * @return un flujo secuencial con los elementos de la lista.
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Regresa un flujo paralelo con los elementos de la lista.
+     * @return un flujo paralelo con los elementos de la lista.
+     */
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
     /**
      * Regresa un iterador para recorrer la lista en ambas
      * direcciones.
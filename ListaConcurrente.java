@@ -0,0 +1,304 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicMarkableReference;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Clase genérica para listas concurrentes sin candados.</p>
+ *
+ * <p>Varios hilos pueden agregar y eliminar elementos al mismo tiempo
+ * sin sincronizar: la lista se liga con operaciones atómicas de
+ * comparar-e-intercambiar, al estilo de la cola de Michael y Scott.
+ * Para poder eliminar en ambos extremos, cada nodo se marca antes de
+ * quitarlo (como en la lista de Harris): un nodo marcado ya no está
+ * en la lista aunque siga ligado, y cualquier hilo que se lo
+ * encuentre ayuda a desligarlo.</p>
+ *
+ * <p>{@link #agregaFinal} y {@link #eliminaPrimero}, el caso de un
+ * productor y un consumidor, cuestan tiempo constante amortizado;
+ * {@link #agregaInicio} también. Como los nodos sólo están ligados
+ * hacia adelante, {@link #eliminaUltimo} tiene que recorrer la lista
+ * y cuesta tiempo lineal, <em>O(n)</em>; después deja la pista del
+ * rabo en el nuevo último nodo, así que el siguiente {@link
+ * #agregaFinal} sigue costando tiempo constante.
+ * Los iteradores son débilmente consistentes: nunca lanzan
+ * excepciones por modificaciones concurrentes, regresan cada
+ * elemento a lo más una vez, y pueden o no ver los cambios hechos
+ * después de crearlos.</p>
+ */
+public class ListaConcurrente<T> implements Iterable<T> {
+
+    /* Nodos de la lista; la marca de siguiente indica que el nodo
+     * fue eliminado, y entonces siguiente ya no cambia. */
+    private static class Nodo<T> {
+        public final T elemento;
+        public final AtomicMarkableReference<Nodo<T>> siguiente;
+
+        public Nodo(T elemento, Nodo<T> siguiente) {
+            this.elemento = elemento;
+            this.siguiente =
+                new AtomicMarkableReference<Nodo<T>>(siguiente, false);
+        }
+    }
+
+    /* Iterador débilmente consistente: adelanta el siguiente
+     * elemento no eliminado. */
+    private class Iterador implements Iterator<T> {
+
+        /* El nodo del siguiente elemento, o null. */
+        private Nodo<T> siguiente;
+
+        /* Construye un iterador al inicio de la lista. */
+        public Iterador() {
+            siguiente = vivo(cabeza.siguiente.getReference());
+        }
+
+        /* Nos dice si hay un siguiente elemento. */
+        @Override public boolean hasNext() {
+            return siguiente != null;
+        }
+
+        /* Regresa el siguiente elemento. */
+        @Override public T next() {
+            if (siguiente == null)
+                throw new NoSuchElementException();
+            T t = siguiente.elemento;
+            siguiente = vivo(siguiente.siguiente.getReference());
+            return t;
+        }
+
+        /* No lo implementamos: siempre lanza una excepción. */
+        @Override public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /* Centinela antes del primer elemento; nunca se marca. */
+    private final Nodo<T> cabeza;
+    /* Pista del último nodo; puede estar atrasada o eliminada. */
+    private final AtomicReference<Nodo<T>> rabo;
+    /* Número de elementos. */
+    private final LongAdder longitud;
+
+    /**
+     * Construye una lista concurrente vacía.
+     */
+    public ListaConcurrente() {
+        cabeza = new Nodo<T>(null, null);
+        rabo = new AtomicReference<Nodo<T>>(cabeza);
+        longitud = new LongAdder();
+    }
+
+    /**
+     * Regresa la longitud de la lista. Si otros hilos la están
+     * modificando, el valor puede estar desfasado.
+     * @return el número de elementos en la lista.
+     */
+    public int getLongitud() {
+        return longitud.intValue();
+    }
+
+    /**
+     * Nos dice si la lista es vacía.
+     * @return <tt>true</tt> si la lista no tiene elementos,
+     *         <tt>false</tt> en otro caso.
+     */
+    public boolean esVacia() {
+        return vivo(cabeza.siguiente.getReference()) == null;
+    }
+
+    /**
+     * Agrega un elemento al final de la lista, sin candados.
+     * @param elemento el elemento a agregar.
+     * @throws IllegalArgumentException si el elemento es
+     *         <tt>null</tt>.
+     */
+    public void agregaFinal(T elemento) {
+        if (elemento == null)
+            throw new IllegalArgumentException();
+        Nodo<T> n = new Nodo<T>(elemento, null);
+        Nodo<T> t = rabo.get();
+        while (true) {
+            Nodo<T> s = t.siguiente.getReference();
+            if (s != null) {
+                t = s;
+                continue;
+            }
+            if (t.siguiente.compareAndSet(null, n, false, false))
+                break;
+            /* No se puede agregar después de un nodo eliminado. */
+            if (t.siguiente.isMarked())
+                t = ultimo();
+        }
+        rabo.set(n);
+        longitud.increment();
+    }
+
+    /**
+     * Agrega un elemento al inicio de la lista, sin candados.
+     * @param elemento el elemento a agregar.
+     * @throws IllegalArgumentException si el elemento es
+     *         <tt>null</tt>.
+     */
+    public void agregaInicio(T elemento) {
+        if (elemento == null)
+            throw new IllegalArgumentException();
+        Nodo<T> n = new Nodo<T>(elemento, null);
+        while (true) {
+            Nodo<T> primero = cabeza.siguiente.getReference();
+            n.siguiente.set(primero, false);
+            if (cabeza.siguiente.compareAndSet(primero, n, false, false))
+                break;
+        }
+        longitud.increment();
+    }
+
+    /**
+     * Elimina el primer elemento de la lista y lo regresa, sin
+     * candados.
+     * @return el primer elemento de la lista.
+     * @throws NoSuchElementException si la lista es vacía.
+     */
+    public T eliminaPrimero() {
+        boolean[] marca = new boolean[1];
+        while (true) {
+            Nodo<T> primero = cabeza.siguiente.getReference();
+            if (primero == null)
+                throw new NoSuchElementException();
+            Nodo<T> sucesor = primero.siguiente.get(marca);
+            if (!marca[0] &&
+                !primero.siguiente.compareAndSet(sucesor, sucesor, false, true))
+                continue;
+            /* Lo desligamos, lo hayamos marcado nosotros u otro. */
+            cabeza.siguiente.compareAndSet(primero, sucesor, false, false);
+            if (!marca[0]) {
+                longitud.decrement();
+                return primero.elemento;
+            }
+        }
+    }
+
+    /**
+     * Elimina el último elemento de la lista y lo regresa, sin
+     * candados. Tiene que recorrer la lista para encontrarlo, así que
+     * cuesta tiempo lineal.
+     * @return el último elemento de la lista.
+     * @throws NoSuchElementException si la lista es vacía.
+     */
+    public T eliminaUltimo() {
+        boolean[] marca = new boolean[1];
+        reintenta:
+        while (true) {
+            Nodo<T> anterior = cabeza, actual = cabeza.siguiente.getReference();
+            if (actual == null)
+                throw new NoSuchElementException();
+            while (true) {
+                Nodo<T> sucesor = actual.siguiente.get(marca);
+                if (marca[0]) {
+                    if (!anterior.siguiente.compareAndSet(actual, sucesor, false, false))
+                        continue reintenta;
+                    if (sucesor == null) {
+                        if (anterior == cabeza)
+                            throw new NoSuchElementException();
+                        continue reintenta;
+                    }
+                    actual = sucesor;
+                } else if (sucesor != null) {
+                    anterior = actual;
+                    actual = sucesor;
+                } else {
+                    if (!actual.siguiente.compareAndSet(null, null, false, true))
+                        continue reintenta;
+                    anterior.siguiente.compareAndSet(actual, null, false, false);
+                    /* El anterior es el nuevo último nodo. */
+                    rabo.set(anterior);
+                    longitud.decrement();
+                    return actual.elemento;
+                }
+            }
+        }
+    }
+
+    /**
+     * Nos dice si un elemento está en la lista. Si otros hilos la
+     * están modificando, el resultado puede estar desfasado.
+     * @param elemento el elemento a buscar.
+     * @return <tt>true</tt> si el elemento está en la lista,
+     *         <tt>false</tt> en otro caso.
+     */
+    public boolean contiene(T elemento) {
+        for (T t : this)
+            if (t.equals(elemento))
+                return true;
+        return false;
+    }
+
+    /**
+     * Regresa una {@link Lista} con los elementos que tiene la lista
+     * mientras se recorre.
+     * @return una lista con los elementos de la lista.
+     */
+    public Lista<T> aLista() {
+        Lista<T> l = new Lista<T>();
+        for (T t : this)
+            l.agregaFinal(t);
+        return l;
+    }
+
+    /**
+     * Regresa una representación en cadena de la lista.
+     * @return una representación en cadena de la lista.
+     */
+    @Override public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        boolean primero = true;
+        for (T t : this) {
+            if (!primero)
+                sb.append(", ");
+            sb.append(t);
+            primero = false;
+        }
+        return sb.append("]").toString();
+    }
+
+    /**
+     * Regresa un iterador débilmente consistente para recorrer la
+     * lista.
+     * @return un iterador para recorrer la lista.
+     */
+    @Override public Iterator<T> iterator() {
+        return new Iterador();
+    }
+
+    /* Regresa el primer nodo no eliminado a partir de n, o null. */
+    private Nodo<T> vivo(Nodo<T> n) {
+        while (n != null && n.siguiente.isMarked())
+            n = n.siguiente.getReference();
+        return n;
+    }
+
+    /* Recorre la lista desde la cabeza desligando los nodos
+     * eliminados, y regresa el último nodo no eliminado (o la
+     * cabeza). */
+    private Nodo<T> ultimo() {
+        boolean[] marca = new boolean[1];
+        reintenta:
+        while (true) {
+            Nodo<T> anterior = cabeza, actual = cabeza.siguiente.getReference();
+            while (actual != null) {
+                Nodo<T> sucesor = actual.siguiente.get(marca);
+                if (marca[0]) {
+                    if (!anterior.siguiente.compareAndSet(actual, sucesor, false, false))
+                        continue reintenta;
+                } else {
+                    anterior = actual;
+                }
+                actual = sucesor;
+            }
+            return anterior;
+        }
+    }
+}
@@ -0,0 +1,549 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase genérica para listas desenrolladas.</p>
+ *
+ * <p>Una lista desenrollada tiene las mismas operaciones que una
+ * {@link Lista}, pero en lugar de un nodo por elemento usa bloques
+ * doblemente ligados con un arreglo de hasta {@link #CAPACIDAD}
+ * elementos cada uno. Así cada elemento cuesta poco más que una
+ * referencia, y recorrer la lista recorre arreglos contiguos.
+ * Agregar y eliminar en los extremos sigue costando tiempo
+ * constante; <tt>get(i)</tt> salta bloques completos.</p>
+ *
+ * <p>Al igual que una lista, se puede recorrer en ambas direcciones
+ * con un {@link IteradorLista}.</p>
+ */
+public class ListaDesenrollada<T> implements Iterable<T> {
+
+    /**
+     * Número máximo de elementos en un bloque.
+     */
+    public static final int CAPACIDAD = 64;
+
+    /* Bloques de la lista; los elementos ocupan el rango [inicio,
+     * fin) del arreglo, y ningún bloque en la lista está vacío. */
+    private class Bloque {
+        public Object[] elementos;
+        public int inicio;
+        public int fin;
+        public Bloque anterior;
+        public Bloque siguiente;
+
+        /* Crea un bloque vacío cuyos elementos empiezan en el lugar
+         * recibido. */
+        public Bloque(int lugar) {
+            elementos = new Object[CAPACIDAD];
+            inicio = fin = lugar;
+        }
+
+        /* Regresa el número de elementos en el bloque. */
+        public int getTamano() {
+            return fin - inicio;
+        }
+
+        /* Regresa el elemento en el lugar k del arreglo. */
+        @SuppressWarnings("unchecked") public T get(int k) {
+            return (T)elementos[k];
+        }
+    }
+
+    /* Clase Iterador privada para iteradores. El iterador está entre
+     * dos elementos: el siguiente es el del lugar k del bloque, o no
+     * hay siguiente si el bloque es null. */
+    private class Iterador implements IteradorLista<T> {
+
+        /* El bloque del siguiente elemento. */
+        private Bloque bloque;
+        /* El lugar del siguiente elemento en el bloque. */
+        private int k;
+
+        /* Construye un iterador al inicio de la lista. */
+        public Iterador() {
+            start();
+        }
+
+        /* Nos dice si hay un siguiente elemento. */
+        @Override public boolean hasNext() {
+            return bloque != null;
+        }
+
+        /* Regresa el siguiente elemento. */
+        @Override public T next() {
+            if (bloque == null)
+                throw new NoSuchElementException();
+            T t = bloque.get(k++);
+            if (k == bloque.fin) {
+                bloque = bloque.siguiente;
+                k = bloque == null ? 0 : bloque.inicio;
+            }
+            return t;
+        }
+
+        /* Nos dice si hay un elemento anterior. */
+        @Override public boolean hasPrevious() {
+            if (bloque == null)
+                return rabo != null;
+            return k > bloque.inicio || bloque.anterior != null;
+        }
+
+        /* Regresa el elemento anterior. */
+        @Override public T previous() {
+            Bloque b = bloque;
+            int l = k;
+            if (b == null) {
+                b = rabo;
+                l = b == null ? 0 : b.fin;
+            } else if (l == b.inicio) {
+                b = b.anterior;
+                l = b == null ? 0 : b.fin;
+            }
+            if (b == null)
+                throw new NoSuchElementException();
+            bloque = b;
+            k = l - 1;
+            return b.get(k);
+        }
+
+        /* No lo implementamos: siempre lanza una excepción. */
+        @Override public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /* Mueve el iterador al inicio de la lista. */
+        @Override public void start() {
+            bloque = cabeza;
+            k = cabeza == null ? 0 : cabeza.inicio;
+        }
+
+        /* Mueve el iterador al final de la lista. */
+        @Override public void end() {
+            bloque = null;
+            k = 0;
+        }
+    }
+
+    /* Primer bloque de la lista. */
+    private Bloque cabeza;
+    /* Último bloque de la lista. */
+    private Bloque rabo;
+    /* Número de elementos en la lista. */
+    private int longitud;
+
+    /**
+     * Regresa una copia de la lista recibida, pero ordenada. La
+     * lista recibida tiene que contener nada más elementos que
+     * implementan la interfaz {@link Comparable}. Los elementos se
+     * ordenan en un arreglo con un mergesort estable, y la copia se
+     * arma con bloques llenos.
+     * @param l la lista que se ordenará.
+     * @return una copia de la lista recibida, pero ordenada.
+     */
+    public static <T extends Comparable<T>>
+        ListaDesenrollada<T> mergeSort(ListaDesenrollada<T> l) {
+        Object[] arreglo = new Object[l.longitud];
+        int i = 0;
+        for (ListaDesenrollada<T>.Bloque b = l.cabeza; b != null; b = b.siguiente)
+            for (int k = b.inicio; k < b.fin; k++)
+                arreglo[i++] = b.elementos[k];
+        Arrays.sort(arreglo);
+        ListaDesenrollada<T> copia = new ListaDesenrollada<T>();
+        for (Object elemento : arreglo) {
+            @SuppressWarnings("unchecked") T t = (T)elemento;
+            copia.agregaFinal(t);
+        }
+        return copia;
+    }
+
+    /**
+     * Busca un elemento en una lista ordenada. La lista recibida
+     * tiene que contener nada más elementos que implementan la
+     * interfaz {@link Comparable}, y se da por hecho que está
+     * ordenada. Los bloques cuyo último elemento es menor que el
+     * buscado se saltan completos.
+     * @param l la lista donde se buscará.
+     * @param e el elemento a buscar.
+     * @return <tt>true</tt> si e está contenido en la lista,
+     *         <tt>false</tt> en otro caso.
+     */
+    public static <T extends Comparable<T>>
+        boolean busquedaLineal(ListaDesenrollada<T> l, T e) {
+        if (l == null)
+            return false;
+        for (ListaDesenrollada<T>.Bloque b = l.cabeza; b != null; b = b.siguiente) {
+            if (b.get(b.fin - 1).compareTo(e) < 0)
+                continue;
+            for (int k = b.inicio; k < b.fin; k++) {
+                int c = b.get(k).compareTo(e);
+                if (c == 0)
+                    return true;
+                if (c > 0)
+                    return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Regresa la longitud de la lista.
+     * @return la longitud de la lista, el número de elementos que
+     * contiene.
+     */
+    public int getLongitud() {
+        return longitud;
+    }
+
+    /**
+     * Agrega un elemento al final de la lista.
+     * @param elemento el elemento a agregar.
+     */
+    public void agregaFinal(T elemento) {
+        if (rabo == null || rabo.fin == CAPACIDAD) {
+            Bloque b = new Bloque(0);
+            if (rabo == null) {
+                cabeza = rabo = b;
+            } else {
+                rabo.siguiente = b;
+                b.anterior = rabo;
+                rabo = b;
+            }
+        }
+        rabo.elementos[rabo.fin++] = elemento;
+        longitud++;
+    }
+
+    /**
+     * Agrega un elemento al inicio de la lista.
+     * @param elemento el elemento a agregar.
+     */
+    public void agregaInicio(T elemento) {
+        if (cabeza == null || cabeza.inicio == 0) {
+            Bloque b = new Bloque(CAPACIDAD);
+            if (cabeza == null) {
+                cabeza = rabo = b;
+            } else {
+                cabeza.anterior = b;
+                b.siguiente = cabeza;
+                cabeza = b;
+            }
+        }
+        cabeza.elementos[--cabeza.inicio] = elemento;
+        longitud++;
+    }
+
+    /**
+     * Elimina la primera aparición del elemento en la lista. Si el
+     * elemento no está contenido en la lista, el método no la
+     * modifica.
+     * @param elemento el elemento a eliminar.
+     */
+    public void elimina(T elemento) {
+        for (Bloque b = cabeza; b != null; b = b.siguiente)
+            for (int k = b.inicio; k < b.fin; k++)
+                if (b.elementos[k].equals(elemento)) {
+                    eliminaEn(b, k);
+                    return;
+                }
+    }
+
+    /**
+     * Elimina el primer elemento de la lista y lo regresa.
+     * @return el primer elemento de la lista.
+     * @throws NoSuchElementException si la lista es vacía.
+     */
+    public T eliminaPrimero() {
+        if (cabeza == null)
+            throw new NoSuchElementException();
+        T t = cabeza.get(cabeza.inicio);
+        cabeza.elementos[cabeza.inicio++] = null;
+        if (cabeza.getTamano() == 0)
+            desliga(cabeza);
+        longitud--;
+        return t;
+    }
+
+    /**
+     * Elimina el último elemento de la lista y lo regresa.
+     * @return el último elemento de la lista.
+     * @throws NoSuchElementException si la lista es vacía.
+     */
+    public T eliminaUltimo() {
+        if (rabo == null)
+            throw new NoSuchElementException();
+        T t = rabo.get(--rabo.fin);
+        rabo.elementos[rabo.fin] = null;
+        if (rabo.getTamano() == 0)
+            desliga(rabo);
+        longitud--;
+        return t;
+    }
+
+    /**
+     * Nos dice si un elemento está en la lista.
+     * @param elemento el elemento que queremos saber si está en la
+     * lista.
+     * @return <tt>true</tt> si <tt>elemento</tt> está en la lista,
+     *         <tt>false</tt> en otro caso.
+     */
+    public boolean contiene(T elemento) {
+        return indiceDe(elemento) != -1;
+    }
+
+    /**
+     * Regresa la reversa de la lista.
+     * @return una nueva lista que es la reversa la que manda llamar
+     *         el método.
+     */
+    public ListaDesenrollada<T> reversa() {
+        ListaDesenrollada<T> l = new ListaDesenrollada<T>();
+        for (T elemento : this)
+            l.agregaInicio(elemento);
+        return l;
+    }
+
+    /**
+     * Regresa una copia de la lista. La copia tiene los mismos
+     * elementos que la lista que manda llamar el método, en el
+     * mismo orden, con los bloques llenos.
+     * @return una copia de la lista.
+     */
+    public ListaDesenrollada<T> copia() {
+        ListaDesenrollada<T> l = new ListaDesenrollada<T>();
+        for (T elemento : this)
+            l.agregaFinal(elemento);
+        return l;
+    }
+
+    /**
+     * Limpia la lista de elementos.
+     */
+    public void limpia() {
+        cabeza = rabo = null;
+        longitud = 0;
+    }
+
+    /**
+     * Regresa el primer elemento de la lista.
+     * @return el primer elemento de la lista.
+     * @throws NoSuchElementException si la lista es vacía.
+     */
+    public T getPrimero() {
+        if (cabeza == null)
+            throw new NoSuchElementException();
+        return cabeza.get(cabeza.inicio);
+    }
+
+    /**
+     * Regresa el último elemento de la lista.
+     * @return el último elemento de la lista.
+     * @throws NoSuchElementException si la lista es vacía.
+     */
+    public T getUltimo() {
+        if (rabo == null)
+            throw new NoSuchElementException();
+        return rabo.get(rabo.fin - 1);
+    }
+
+    /**
+     * Regresa el <em>i</em>-ésimo elemento de la lista. Se salta
+     * bloques completos desde el extremo más cercano.
+     * @param i el índice del elemento que queremos.
+     * @return el <em>i</em>-ésimo elemento de la lista.
+     * @throws ExcepcionIndiceInvalido si el índice recibido es
+     *         menor que cero, o mayor que el número de elementos en
+     *         la lista menos uno.
+     */
+    public T get(int i) {
+        if (i < 0 || i >= longitud)
+            throw new ExcepcionIndiceInvalido();
+        if (i < longitud / 2) {
+            Bloque b = cabeza;
+            while (i >= b.getTamano()) {
+                i -= b.getTamano();
+                b = b.siguiente;
+            }
+            return b.get(b.inicio + i);
+        }
+        int j = longitud - 1 - i;
+        Bloque b = rabo;
+        while (j >= b.getTamano()) {
+            j -= b.getTamano();
+            b = b.anterior;
+        }
+        return b.get(b.fin - 1 - j);
+    }
+
+    /**
+     * Regresa el índice del elemento recibido en la lista.
+     * @param elemento el elemento del que se busca el índice.
+     * @return el índice del elemento recibido en la lista, o -1 si
+     *         el elemento no está contenido en la lista.
+     */
+    public int indiceDe(T elemento) {
+        int i = 0;
+        for (Bloque b = cabeza; b != null; b = b.siguiente)
+            for (int k = b.inicio; k < b.fin; k++, i++)
+                if (b.elementos[k].equals(elemento))
+                    return i;
+        return -1;
+    }
+
+    /**
+     * Regresa el número de bloques de la lista.
+     * @return el número de bloques de la lista.
+     */
+    public int getBloques() {
+        int n = 0;
+        for (Bloque b = cabeza; b != null; b = b.siguiente)
+            n++;
+        return n;
+    }
+
+    /**
+     * Nos dice si la lista es igual al objeto recibido.
+     * @param o el objeto con el que hay que comparar.
+     * @return <tt>true</tt> si la lista es igual al objeto
+     *         recibido; <tt>false</tt> en otro caso.
+     */
+    @Override public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass())
+            return false;
+        @SuppressWarnings("unchecked") ListaDesenrollada<T> l =
+            (ListaDesenrollada<T>)o;
+        if (longitud != l.longitud)
+            return false;
+        Iterator<T> i = l.iterator();
+        for (T elemento : this)
+            if (!elemento.equals(i.next()))
+                return false;
+        return true;
+    }
+
+    /**
+     * Regresa un código de dispersión para la lista, con la misma
+     * fórmula que {@link Lista#hashCode}.
+     * @return un código de dispersión para la lista.
+     */
+    @Override public int hashCode() {
+        int h = 1;
+        for (Bloque b = cabeza; b != null; b = b.siguiente)
+            for (int k = b.inicio; k < b.fin; k++)
+                h = 31 * h + (b.elementos[k] == null ? 0 : b.elementos[k].hashCode());
+        return h;
+    }
+
+    /**
+     * Regresa una representación en cadena de la lista.
+     * @return una representación en cadena de la lista.
+     */
+    @Override public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        boolean primero = true;
+        for (T elemento : this) {
+            if (!primero)
+                sb.append(", ");
+            sb.append(elemento);
+            primero = false;
+        }
+        return sb.append("]").toString();
+    }
+
+    /**
+     * Regresa el SVG de la lista: cada bloque es una fila de
+     * casillas, y los bloques se unen con flechas dobles.
+     * @return el SVG de la lista.
+     */
+    public String generaScalableVectorGraphics() {
+        if (longitud == 0)
+            return "<?xml version='1.0' encoding='UTF-8'?> \n<svg width='100' height='100'> \n <g>\n</g>\n</svg>";
+        StringBuilder sb = new StringBuilder();
+        int x = 0;
+        for (Bloque b = cabeza; b != null; b = b.siguiente) {
+            sb.append(" \n<rect width='").append(50 * b.getTamano() + 10)
+              .append("' height='35' x = '").append(x)
+              .append("' y = '0' style='fill:white;stroke-width:2;stroke:rgb(0,0,0)'/>");
+            x += 5;
+            for (int k = b.inicio; k < b.fin; k++) {
+                sb.append(" \n<rect width='50' height='25' x = '").append(x)
+                  .append("' y = '5' style='fill:rgb(0,0,5000);stroke-width:1;stroke:rgb(0,0,0)'/>")
+                  .append(" <text fill='white' font-family='sans-serif' font-size='20' x='")
+                  .append(x + 25).append("' y='25' text-anchor='middle'>")
+                  .append(b.elementos[k]).append("</text>");
+                x += 50;
+            }
+            x += 5;
+            if (b.siguiente != null)
+                sb.append(" <text fill='black' font-family='sans-serif' font-size='40' x='")
+                  .append(x + 25).append("' y='30' text-anchor='middle'>↔</text>");
+            x += 50;
+        }
+        return "<?xml version='1.0' encoding='UTF-8'?> \n<svg width='" + x +
+            "' height='100%'> \n <g>" + sb + "\n</g>\n</svg>";
+    }
+
+    /**
+     * Regresa un iterador para recorrer la lista.
+     * @return un iterador para recorrer la lista.
+     */
+    @Override public Iterator<T> iterator() {
+        return new Iterador();
+    }
+
+    /**
+     * Regresa un iterador para recorrer la lista en ambas
+     * direcciones.
+     * @return un iterador para recorrer la lista en ambas
+     * direcciones.
+     */
+    public IteradorLista<T> iteradorLista() {
+        return new Iterador();
+    }
+
+    /* Elimina el elemento en el lugar k del bloque, recorriendo los
+     * demás; si el bloque queda con pocos elementos, lo junta con el
+     * siguiente. */
+    private void eliminaEn(Bloque b, int k) {
+        if (k - b.inicio < b.fin - 1 - k) {
+            System.arraycopy(b.elementos, b.inicio, b.elementos, b.inicio + 1,
+                             k - b.inicio);
+            b.elementos[b.inicio++] = null;
+        } else {
+            System.arraycopy(b.elementos, k + 1, b.elementos, k, b.fin - 1 - k);
+            b.elementos[--b.fin] = null;
+        }
+        longitud--;
+        if (b.getTamano() == 0) {
+            desliga(b);
+            return;
+        }
+        Bloque s = b.siguiente;
+        if (s != null && b.getTamano() + s.getTamano() <= CAPACIDAD / 2) {
+            /* Recorremos los elementos de b al principio del arreglo y
+             * le pasamos los de s. */
+            int n = b.getTamano();
+            System.arraycopy(b.elementos, b.inicio, b.elementos, 0, n);
+            System.arraycopy(s.elementos, s.inicio, b.elementos, n, s.getTamano());
+            for (int l = n + s.getTamano(); l < CAPACIDAD; l++)
+                b.elementos[l] = null;
+            b.inicio = 0;
+            b.fin = n + s.getTamano();
+            desliga(s);
+        }
+    }
+
+    /* Quita un bloque de la cadena de bloques. */
+    private void desliga(Bloque b) {
+        if (b.anterior == null)
+            cabeza = b.siguiente;
+        else
+            b.anterior.siguiente = b.siguiente;
+        if (b.siguiente == null)
+            rabo = b.anterior;
+        else
+            b.siguiente.anterior = b.anterior;
+    }
+}
@@ -0,0 +1,353 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.stream.DoubleStream;
+
+/**
+ * <p>Clase para listas de números de punto flotante primitivos.</p>
+ *
+ * <p>Tiene las operaciones de una {@link Lista}, pero los elementos
+ * se guardan en un arreglo circular de <tt>double</tt> que crece al
+ * doble cuando se llena: no hay un objeto por elemento ni un nodo por
+ * elemento. Agregar y eliminar en los extremos cuesta tiempo
+ * constante amortizado, y obtener el elemento en un índice cuesta
+ * tiempo constante.</p>
+ *
+ * <p>Dos elementos son iguales si lo son como {@link Double}: NaN es
+ * igual a sí mismo, y 0.0 es distinto de -0.0.</p>
+ */
+public class ListaDobles {
+
+    /* Capacidad inicial; siempre es potencia de dos. */
+    private static final int CAPACIDAD_INICIAL = 16;
+
+    /* Los elementos; el primero está en inicio. */
+    private double[] elementos;
+    /* El lugar del primer elemento. */
+    private int inicio;
+    /* Número de elementos en la lista. */
+    private int longitud;
+
+    /**
+     * Construye una lista vacía.
+     */
+    public ListaDobles() {
+        elementos = new double[CAPACIDAD_INICIAL];
+    }
+
+    /**
+     * Construye una lista con los elementos del arreglo recibido, en
+     * el mismo orden.
+     * @param arreglo los elementos de la lista.
+     */
+    public ListaDobles(double[] arreglo) {
+        int capacidad = CAPACIDAD_INICIAL;
+        while (capacidad < arreglo.length)
+            capacidad <<= 1;
+        elementos = Arrays.copyOf(arreglo, capacidad);
+        longitud = arreglo.length;
+    }
+
+    /**
+     * Regresa una copia de la lista recibida, pero ordenada. Como los
+     * elementos son primitivos, el orden no tiene que ser estable y
+     * se usa el ordenamiento de arreglos primitivos de Java: -0.0
+     * queda antes que 0.0, y NaN al final.
+     * @param l la lista que se ordenará.
+     * @return una copia de la lista recibida, pero ordenada.
+     */
+    public static ListaDobles mergeSort(ListaDobles l) {
+        ListaDobles copia = l.copia();
+        copia.ordena();
+        return copia;
+    }
+
+    /**
+     * Regresa la longitud de la lista.
+     * @return el número de elementos en la lista.
+     */
+    public int getLongitud() {
+        return longitud;
+    }
+
+    /**
+     * Nos dice si la lista es vacía.
+     * @return <tt>true</tt> si la lista no tiene elementos,
+     *         <tt>false</tt> en otro caso.
+     */
+    public boolean esVacia() {
+        return longitud == 0;
+    }
+
+    /**
+     * Agrega un elemento al final de la lista.
+     * @param elemento el elemento a agregar.
+     */
+    public void agregaFinal(double elemento) {
+        if (longitud == elementos.length)
+            crece();
+        elementos[lugar(longitud++)] = elemento;
+    }
+
+    /**
+     * Agrega un elemento al inicio de la lista.
+     * @param elemento el elemento a agregar.
+     */
+    public void agregaInicio(double elemento) {
+        if (longitud == elementos.length)
+            crece();
+        inicio = (inicio - 1) & (elementos.length - 1);
+        elementos[inicio] = elemento;
+        longitud++;
+    }
+
+    /**
+     * Elimina la primera aparición de un elemento. Si el elemento no
+     * está en la lista, el método no la modifica.
+     * @param elemento el elemento a eliminar.
+     */
+    public void elimina(double elemento) {
+        int i = indiceDe(elemento);
+        if (i == -1)
+            return;
+        for (int j = i + 1; j < longitud; j++)
+            elementos[lugar(j - 1)] = elementos[lugar(j)];
+        longitud--;
+    }
+
+    /**
+     * Elimina el primer elemento de la lista y lo regresa.
+     * @return el primer elemento de la lista.
+     * @throws NoSuchElementException si la lista es vacía.
+     */
+    public double eliminaPrimero() {
+        if (longitud == 0)
+            throw new NoSuchElementException();
+        double e = elementos[inicio];
+        inicio = (inicio + 1) & (elementos.length - 1);
+        longitud--;
+        return e;
+    }
+
+    /**
+     * Elimina el último elemento de la lista y lo regresa.
+     * @return el último elemento de la lista.
+     * @throws NoSuchElementException si la lista es vacía.
+     */
+    public double eliminaUltimo() {
+        if (longitud == 0)
+            throw new NoSuchElementException();
+        return elementos[lugar(--longitud)];
+    }
+
+    /**
+     * Nos dice si un elemento está en la lista.
+     * @param elemento el elemento a buscar.
+     * @return <tt>true</tt> si el elemento está en la lista,
+     *         <tt>false</tt> en otro caso.
+     */
+    public boolean contiene(double elemento) {
+        return indiceDe(elemento) != -1;
+    }
+
+    /**
+     * Regresa el índice de la primera aparición de un elemento.
+     * @param elemento el elemento del que se busca el índice.
+     * @return el índice del elemento en la lista, o -1 si el elemento
+     *         no está en la lista.
+     */
+    public int indiceDe(double elemento) {
+        for (int i = 0; i < longitud; i++)
+            if (iguales(elementos[lugar(i)], elemento))
+                return i;
+        return -1;
+    }
+
+    /**
+     * Regresa el <em>i</em>-ésimo elemento de la lista.
+     * @param i el índice del elemento que queremos.
+     * @return el <em>i</em>-ésimo elemento de la lista.
+     * @throws ExcepcionIndiceInvalido si el índice recibido es
+     *         menor que cero, o mayor que el número de elementos en
+     *         la lista menos uno.
+     */
+    public double get(int i) {
+        if (i < 0 || i >= longitud)
+            throw new ExcepcionIndiceInvalido();
+        return elementos[lugar(i)];
+    }
+
+    /**
+     * Regresa el primer elemento de la lista.
+     * @return el primer elemento de la lista.
+     * @throws NoSuchElementException si la lista es vacía.
+     */
+    public double getPrimero() {
+        if (longitud == 0)
+            throw new NoSuchElementException();
+        return elementos[inicio];
+    }
+
+    /**
+     * Regresa el último elemento de la lista.
+     * @return el último elemento de la lista.
+     * @throws NoSuchElementException si la lista es vacía.
+     */
+    public double getUltimo() {
+        if (longitud == 0)
+            throw new NoSuchElementException();
+        return elementos[lugar(longitud - 1)];
+    }
+
+    /**
+     * Regresa la reversa de la lista.
+     * @return una nueva lista que es la reversa de la que manda
+     *         llamar el método.
+     */
+    public ListaDobles reversa() {
+        double[] arreglo = new double[longitud];
+        for (int i = 0; i < longitud; i++)
+            arreglo[longitud - 1 - i] = elementos[lugar(i)];
+        return new ListaDobles(arreglo);
+    }
+
+    /**
+     * Regresa una copia de la lista.
+     * @return una copia de la lista.
+     */
+    public ListaDobles copia() {
+        return new ListaDobles(aArreglo());
+    }
+
+    /**
+     * Limpia la lista de elementos.
+     */
+    public void limpia() {
+        inicio = longitud = 0;
+    }
+
+    /**
+     * Ordena la lista en su lugar, con el ordenamiento de arreglos
+     * primitivos de Java.
+     */
+    public void ordena() {
+        acomoda();
+        Arrays.sort(elementos, 0, longitud);
+    }
+
+    /**
+     * Regresa un arreglo con los elementos de la lista, en orden.
+     * @return un arreglo con los elementos de la lista.
+     */
+    public double[] aArreglo() {
+        double[] arreglo = new double[longitud];
+        int n = Math.min(longitud, elementos.length - inicio);
+        System.arraycopy(elementos, inicio, arreglo, 0, n);
+        System.arraycopy(elementos, 0, arreglo, n, longitud - n);
+        return arreglo;
+    }
+
+    /**
+     * Regresa un flujo con los elementos de la lista. La lista no
+     * debe modificarse mientras se recorre.
+     * @return un flujo con los elementos de la lista.
+     */
+    public DoubleStream stream() {
+        acomoda();
+        return Arrays.stream(elementos, 0, longitud);
+    }
+
+    /**
+     * Nos dice si la lista es igual al objeto recibido.
+     * @param o el objeto con el que hay que comparar.
+     * @return <tt>true</tt> si la lista es igual al objeto recibido;
+     *         <tt>false</tt> en otro caso.
+     */
+    @Override public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass())
+            return false;
+        ListaDobles l = (ListaDobles)o;
+        if (longitud != l.longitud)
+            return false;
+        for (int i = 0; i < longitud; i++)
+            if (!iguales(elementos[lugar(i)], l.elementos[l.lugar(i)]))
+                return false;
+        return true;
+    }
+
+    /**
+     * Regresa un código de dispersión para la lista.
+     * @return un código de dispersión para la lista.
+     */
+    @Override public int hashCode() {
+        int h = 1;
+        for (int i = 0; i < longitud; i++)
+            h = 31 * h + Double.hashCode(elementos[lugar(i)]);
+        return h;
+    }
+
+    /**
+     * Regresa una representación en cadena de la lista.
+     * @return una representación en cadena de la lista.
+     */
+    @Override public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < longitud; i++) {
+            if (i > 0)
+                sb.append(", ");
+            sb.append(elementos[lugar(i)]);
+        }
+        return sb.append("]").toString();
+    }
+
+    /**
+     * Regresa el código SVG para dibujar la lista, como lo dibuja
+     * {@link Lista#generaScalableVectorGraphics}.
+     * @return el código SVG para dibujar la lista.
+     */
+    public String generaScalableVectorGraphics() {
+        if (longitud == 0)
+            return "<?xml version='1.0' encoding='UTF-8'?> \n<svg width='100' height='100'> \n <g>\n</g>\n</svg>";
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version='1.0' encoding='UTF-8'?> \n<svg width='")
+          .append(longitud * 170).append("' height='100%'> \n <g>");
+        for (int i = 0, x = 0; i < longitud; i++, x += 100) {
+            sb.append(" \n<rect width='50' height='25' x = '").append(x)
+              .append("' y = '0' style='fill:rgb(0,0,5000);stroke-width:1;stroke:rgb(0,0,0)'/>")
+              .append(" <text fill='white' font-family='sans-serif' font-size='20' x='")
+              .append(x + 25).append("' y='20' text-anchor='middle'>")
+              .append(elementos[lugar(i)]).append("</text>");
+            if (i < longitud - 1)
+                sb.append(" <text fill='black' font-family='sans-serif' font-size='40' x='")
+                  .append(x + 75).append("' y='25' text-anchor='middle'>↔</text>");
+        }
+        return sb.append("\n</g>\n</svg>").toString();
+    }
+
+    /* Regresa el lugar en el arreglo del i-ésimo elemento. */
+    private int lugar(int i) {
+        return (inicio + i) & (elementos.length - 1);
+    }
+
+    /* Nos dice si dos elementos son iguales como Double. */
+    private static boolean iguales(double a, double b) {
+        return Double.doubleToLongBits(a) == Double.doubleToLongBits(b);
+    }
+
+    /* Duplica la capacidad, dejando el primer elemento en 0. */
+    private void crece() {
+        double[] nuevos = aArreglo();
+        elementos = Arrays.copyOf(nuevos, 2 * elementos.length);
+        inicio = 0;
+    }
+
+    /* Deja los elementos contiguos a partir de 0. */
+    private void acomoda() {
+        if (inicio == 0)
+            return;
+        double[] arreglo = aArreglo();
+        System.arraycopy(arreglo, 0, elementos, 0, longitud);
+        inicio = 0;
+    }
+}
@@ -0,0 +1,443 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase genérica para listas indexadas.</p>
+ *
+ * <p>Una lista indexada es una lista doblemente ligada sin elementos
+ * repetidos, que además guarda en un {@link Diccionario} el nodo de
+ * cada elemento, como un <tt>LinkedHashMap</tt>. Así {@link
+ * #contiene} y {@link #elimina} cuestan tiempo constante esperado, y
+ * la lista sirve como conjunto ordenado de pendientes.</p>
+ *
+ * <p>Opcionalmente la lista mantiene estadísticos de orden: cada nodo
+ * tiene un lugar creciente en un árbol de Fenwick que cuenta los
+ * nodos vivos, y con él {@link #indiceDe} y {@link #get} cuestan
+ * tiempo logarítmico. Los lugares se vuelven a repartir cuando se
+ * acaban en algún extremo, lo que cuesta tiempo constante amortizado
+ * por operación.</p>
+ */
+public class ListaIndexada<T> implements Iterable<T> {
+
+    /* Clase Nodo privada para uso interno de la clase. */
+    private class Nodo {
+        public T elemento;
+        public Nodo anterior;
+        public Nodo siguiente;
+        /* El lugar del nodo en el árbol de Fenwick. */
+        public int lugar;
+
+        public Nodo(T elemento) {
+            this.elemento = elemento;
+        }
+    }
+
+    /* Clase Iterador privada para iteradores. */
+    private class Iterador implements Iterator<T> {
+
+        /* El siguiente nodo. */
+        private Nodo siguiente;
+
+        /* Construye un iterador al inicio de la lista. */
+        public Iterador() {
+            siguiente = cabeza;
+        }
+
+        /* Nos dice si hay un siguiente elemento. */
+        @Override public boolean hasNext() {
+            return siguiente != null;
+        }
+
+        /* Regresa el siguiente elemento. */
+        @Override public T next() {
+            if (siguiente == null)
+                throw new NoSuchElementException();
+            T t = siguiente.elemento;
+            siguiente = siguiente.siguiente;
+            return t;
+        }
+
+        /* No lo implementamos: siempre lanza una excepción. */
+        @Override public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /* Primer elemento de la lista. */
+    private Nodo cabeza;
+    /* Último elemento de la lista. */
+    private Nodo rabo;
+    /* Número de elementos en la lista. */
+    private int longitud;
+    /* El nodo de cada elemento. */
+    private Diccionario<T, Nodo> nodos;
+
+    /* Si se mantienen los estadísticos de orden. */
+    private boolean conIndices;
+    /* Árbol de Fenwick con los lugares ocupados. */
+    private int[] fenwick;
+    /* El nodo en cada lugar. */
+    private Nodo[] porLugar;
+    /* El siguiente lugar libre al inicio (hacia abajo). */
+    private int libreInicio;
+    /* El siguiente lugar libre al final (hacia arriba). */
+    private int libreFinal;
+
+    /**
+     * Construye una lista indexada vacía, sin estadísticos de orden.
+     */
+    public ListaIndexada() {
+        this(false);
+    }
+
+    /**
+     * Construye una lista indexada vacía.
+     * @param conIndices si la lista mantiene estadísticos de orden
+     *        para {@link #indiceDe} y {@link #get}.
+     */
+    public ListaIndexada(boolean conIndices) {
+        this.conIndices = conIndices;
+        nodos = new Diccionario<T, Nodo>();
+        if (conIndices)
+            reparte();
+    }
+
+    /**
+     * Regresa la longitud de la lista.
+     * @return la longitud de la lista, el número de elementos que
+     * contiene.
+     */
+    public int getLongitud() {
+        return longitud;
+    }
+
+    /**
+     * Nos dice si la lista mantiene estadísticos de orden.
+     * @return <tt>true</tt> si {@link #indiceDe} y {@link #get}
+     *         cuestan tiempo logarítmico, <tt>false</tt> si cuestan
+     *         tiempo lineal.
+     */
+    public boolean tieneIndices() {
+        return conIndices;
+    }
+
+    /**
+     * Agrega un elemento al final de la lista.
+     * @param elemento el elemento a agregar.
+     * @throws IllegalArgumentException si el elemento es
+     *         <tt>null</tt> o ya está en la lista.
+     */
+    public void agregaFinal(T elemento) {
+        Nodo n = nuevoNodo(elemento);
+        if (rabo == null) {
+            cabeza = rabo = n;
+        } else {
+            rabo.siguiente = n;
+            n.anterior = rabo;
+            rabo = n;
+        }
+        longitud++;
+        if (conIndices) {
+            if (libreFinal == porLugar.length)
+                reparte();
+            else
+                ocupa(n, libreFinal++);
+        }
+    }
+
+    /**
+     * Agrega un elemento al inicio de la lista.
+     * @param elemento el elemento a agregar.
+     * @throws IllegalArgumentException si el elemento es
+     *         <tt>null</tt> o ya está en la lista.
+     */
+    public void agregaInicio(T elemento) {
+        Nodo n = nuevoNodo(elemento);
+        if (cabeza == null) {
+            cabeza = rabo = n;
+        } else {
+            cabeza.anterior = n;
+            n.siguiente = cabeza;
+            cabeza = n;
+        }
+        longitud++;
+        if (conIndices) {
+            if (libreInicio < 0)
+                reparte();
+            else
+                ocupa(n, libreInicio--);
+        }
+    }
+
+    /**
+     * Elimina un elemento de la lista en tiempo constante esperado.
+     * Si el elemento no está contenido en la lista, el método no la
+     * modifica.
+     * @param elemento el elemento a eliminar.
+     */
+    public void elimina(T elemento) {
+        if (elemento == null || !nodos.contiene(elemento))
+            return;
+        eliminaNodo(nodos.get(elemento));
+    }
+
+    /**
+     * Elimina el primer elemento de la lista y lo regresa.
+     * @return el primer elemento de la lista.
+     * @throws NoSuchElementException si la lista es vacía.
+     */
+    public T eliminaPrimero() {
+        if (cabeza == null)
+            throw new NoSuchElementException();
+        T t = cabeza.elemento;
+        eliminaNodo(cabeza);
+        return t;
+    }
+
+    /**
+     * Elimina el último elemento de la lista y lo regresa.
+     * @return el último elemento de la lista.
+     * @throws NoSuchElementException si la lista es vacía.
+     */
+    public T eliminaUltimo() {
+        if (rabo == null)
+            throw new NoSuchElementException();
+        T t = rabo.elemento;
+        eliminaNodo(rabo);
+        return t;
+    }
+
+    /**
+     * Nos dice si un elemento está en la lista, en tiempo constante
+     * esperado.
+     * @param elemento el elemento que queremos saber si está en la
+     * lista.
+     * @return <tt>true</tt> si <tt>elemento</tt> está en la lista,
+     *         <tt>false</tt> en otro caso.
+     */
+    public boolean contiene(T elemento) {
+        return elemento != null && nodos.contiene(elemento);
+    }
+
+    /**
+     * Regresa el índice del elemento recibido en la lista. Con
+     * estadísticos de orden cuesta tiempo logarítmico; sin ellos,
+     * lineal.
+     * @param elemento el elemento del que se busca el índice.
+     * @return el índice del elemento recibido en la lista, o -1 si
+     *         el elemento no está contenido en la lista.
+     */
+    public int indiceDe(T elemento) {
+        if (!contiene(elemento))
+            return -1;
+        Nodo n = nodos.get(elemento);
+        if (conIndices)
+            return cuenta(n.lugar) - 1;
+        int i = 0;
+        for (Nodo m = cabeza; m != n; m = m.siguiente)
+            i++;
+        return i;
+    }
+
+    /**
+     * Regresa el <em>i</em>-ésimo elemento de la lista. Con
+     * estadísticos de orden cuesta tiempo logarítmico; sin ellos,
+     * lineal.
+     * @param i el índice del elemento que queremos.
+     * @return el <em>i</em>-ésimo elemento de la lista.
+     * @throws ExcepcionIndiceInvalido si el índice recibido es
+     *         menor que cero, o mayor que el número de elementos en
+     *         la lista menos uno.
+     */
+    public T get(int i) {
+        if (i < 0 || i >= longitud)
+            throw new ExcepcionIndiceInvalido();
+        if (conIndices)
+            return porLugar[busca(i + 1)].elemento;
+        Nodo n = cabeza;
+        while (i-- > 0)
+            n = n.siguiente;
+        return n.elemento;
+    }
+
+    /**
+     * Regresa el primer elemento de la lista.
+     * @return el primer elemento de la lista.
+     * @throws NoSuchElementException si la lista es vacía.
+     */
+    public T getPrimero() {
+        if (cabeza == null)
+            throw new NoSuchElementException();
+        return cabeza.elemento;
+    }
+
+    /**
+     * Regresa el último elemento de la lista.
+     * @return el último elemento de la lista.
+     * @throws NoSuchElementException si la lista es vacía.
+     */
+    public T getUltimo() {
+        if (rabo == null)
+            throw new NoSuchElementException();
+        return rabo.elemento;
+    }
+
+    /**
+     * Limpia la lista de elementos.
+     */
+    public void limpia() {
+        cabeza = rabo = null;
+        longitud = 0;
+        nodos = new Diccionario<T, Nodo>();
+        if (conIndices)
+            reparte();
+    }
+
+    /**
+     * Regresa una {@link Lista} con los elementos en el mismo orden.
+     * @return una lista con los elementos en el mismo orden.
+     */
+    public Lista<T> aLista() {
+        Lista<T> l = new Lista<T>();
+        for (Nodo n = cabeza; n != null; n = n.siguiente)
+            l.agregaFinal(n.elemento);
+        return l;
+    }
+
+    /**
+     * Nos dice si la lista es igual al objeto recibido.
+     * @param o el objeto con el que hay que comparar.
+     * @return <tt>true</tt> si la lista es igual al objeto
+     *         recibido; <tt>false</tt> en otro caso.
+     */
+    @Override public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass())
+            return false;
+        @SuppressWarnings("unchecked") ListaIndexada<T> l = (ListaIndexada<T>)o;
+        if (longitud != l.longitud)
+            return false;
+        for (Nodo a = cabeza, b = l.cabeza; a != null; a = a.siguiente, b = b.siguiente)
+            if (!a.elemento.equals(b.elemento))
+                return false;
+        return true;
+    }
+
+    /**
+     * Regresa un código de dispersión para la lista, con la misma
+     * fórmula que {@link Lista#hashCode}; depende del orden de los
+     * elementos, igual que {@link #equals}.
+     * @return un código de dispersión para la lista.
+     */
+    @Override public int hashCode() {
+        int h = 1;
+        for (Nodo n = cabeza; n != null; n = n.siguiente)
+            h = 31 * h + n.elemento.hashCode();
+        return h;
+    }
+
+    /**
+     * Regresa una representación en cadena de la lista.
+     * @return una representación en cadena de la lista.
+     */
+    @Override public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (Nodo n = cabeza; n != null; n = n.siguiente) {
+            if (n != cabeza)
+                sb.append(", ");
+            sb.append(n.elemento);
+        }
+        return sb.append("]").toString();
+    }
+
+    /**
+     * Regresa un iterador para recorrer la lista.
+     * @return un iterador para recorrer la lista.
+     */
+    @Override public Iterator<T> iterator() {
+        return new Iterador();
+    }
+
+    /* Crea el nodo del elemento y lo registra en el diccionario. */
+    private Nodo nuevoNodo(T elemento) {
+        if (elemento == null || nodos.contiene(elemento))
+            throw new IllegalArgumentException();
+        Nodo n = new Nodo(elemento);
+        nodos.agrega(elemento, n);
+        return n;
+    }
+
+    /* Desliga al nodo de la lista y del diccionario. */
+    private void eliminaNodo(Nodo n) {
+        if (n.anterior == null)
+            cabeza = n.siguiente;
+        else
+            n.anterior.siguiente = n.siguiente;
+        if (n.siguiente == null)
+            rabo = n.anterior;
+        else
+            n.siguiente.anterior = n.anterior;
+        nodos.elimina(n.elemento);
+        longitud--;
+        if (conIndices) {
+            porLugar[n.lugar] = null;
+            suma(n.lugar, -1);
+        }
+    }
+
+    /* Vuelve a repartir los lugares: los nodos quedan en medio de un
+     * arreglo con espacio libre en ambos extremos, y el árbol de
+     * Fenwick se reconstruye en tiempo lineal. */
+    @SuppressWarnings("unchecked") private void reparte() {
+        int capacidad = 4 * (longitud + 4);
+        fenwick = new int[capacidad + 1];
+        porLugar = (Nodo[])new ListaIndexada<?>.Nodo[capacidad];
+        int lugar = (capacidad - longitud) / 2;
+        libreInicio = lugar - 1;
+        for (Nodo n = cabeza; n != null; n = n.siguiente) {
+            n.lugar = lugar;
+            porLugar[lugar] = n;
+            fenwick[++lugar] = 1;
+        }
+        libreFinal = lugar;
+        for (int i = 1; i <= capacidad; i++) {
+            int j = i + (i & -i);
+            if (j <= capacidad)
+                fenwick[j] += fenwick[i];
+        }
+    }
+
+    /* Pone al nodo en el lugar recibido. */
+    private void ocupa(Nodo n, int lugar) {
+        n.lugar = lugar;
+        porLugar[lugar] = n;
+        suma(lugar, 1);
+    }
+
+    /* Le suma d a la cuenta del lugar recibido. */
+    private void suma(int lugar, int d) {
+        for (int i = lugar + 1; i < fenwick.length; i += i & -i)
+            fenwick[i] += d;
+    }
+
+    /* Regresa cuántos nodos hay en los lugares hasta el recibido,
+     * incluyéndolo. */
+    private int cuenta(int lugar) {
+        int c = 0;
+        for (int i = lugar + 1; i > 0; i -= i & -i)
+            c += fenwick[i];
+        return c;
+    }
+
+    /* Regresa el lugar del k-ésimo nodo, contando desde uno. */
+    private int busca(int k) {
+        int i = 0;
+        for (int paso = Integer.highestOneBit(fenwick.length - 1); paso > 0; paso >>= 1)
+            if (i + paso < fenwick.length && fenwick[i + paso] < k) {
+                i += paso;
+                k -= fenwick[i];
+            }
+        return i;
+    }
+}
@@ -0,0 +1,356 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase genérica para listas ordenadas con índice de saltos.</p>
+ *
+ * <p>Los elementos se guardan en una cadena ordenada, como en una
+ * {@link Lista}, y encima de ella hay niveles con atajos cada vez más
+ * largos (una <em>skip list</em>). Cada atajo recuerda cuántos
+ * elementos se salta, así que buscar un elemento, su índice o el
+ * elemento en un índice, y agregar o eliminar en su lugar, cuestan
+ * tiempo logarítmico esperado.</p>
+ *
+ * <p>Se puede recorrer toda la lista en orden, o sólo los elementos
+ * de un rango:</p>
+ *
+<pre>
+    for (Integer i : l.rango(10, 20))
+        System.out.println(i);
+</pre>
+ */
+public class ListaOrdenada<T extends Comparable<T>> implements Iterable<T> {
+
+    /* Nodos de la lista. En el nivel l, un nodo apunta al siguiente
+     * nodo con más de l niveles, y guarda cuántos lugares avanza. */
+    private class Nodo {
+        /* El elemento del nodo. */
+        public T elemento;
+        /* El siguiente nodo en cada nivel. */
+        public Nodo[] siguientes;
+        /* Cuántos lugares se avanza en cada nivel. */
+        public int[] anchos;
+
+        /* Crea un nodo con el elemento y los niveles recibidos. */
+        @SuppressWarnings("unchecked") public Nodo(T elemento, int niveles) {
+            this.elemento = elemento;
+            siguientes = (Nodo[])new ListaOrdenada<?>.Nodo[niveles];
+            anchos = new int[niveles];
+        }
+    }
+
+    /* Iterador que recorre la cadena del primer nivel, desde un nodo
+     * hasta el primer elemento que no sea menor que el límite. */
+    private class Iterador implements Iterator<T> {
+
+        /* El siguiente nodo. */
+        private Nodo siguiente;
+        /* El límite, o null si no hay. */
+        private T hasta;
+
+        /* Crea un iterador a partir del nodo recibido. */
+        public Iterador(Nodo siguiente, T hasta) {
+            this.siguiente = siguiente;
+            this.hasta = hasta;
+        }
+
+        /* Nos dice si hay un siguiente elemento. */
+        @Override public boolean hasNext() {
+            return siguiente != null &&
+                (hasta == null || siguiente.elemento.compareTo(hasta) < 0);
+        }
+
+        /* Regresa el siguiente elemento. */
+        @Override public T next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            T t = siguiente.elemento;
+            siguiente = siguiente.siguientes[0];
+            return t;
+        }
+
+        /* No lo implementamos: siempre lanza una excepción. */
+        @Override public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /* Número máximo de niveles. */
+    private static final int MAXIMO_NIVEL = 32;
+
+    /* El nodo centinela antes del primer elemento. */
+    private Nodo cabeza;
+    /* Número de niveles en uso. */
+    private int nivel;
+    /* Número de elementos en la lista. */
+    private int longitud;
+    /* Estado del generador de niveles aleatorios. */
+    private long semilla;
+    /* Los predecesores de la última búsqueda en cada nivel. */
+    private Nodo[] previos;
+    /* Los lugares de los predecesores de la última búsqueda. */
+    private int[] lugares;
+
+    /**
+     * Construye una lista ordenada vacía.
+     */
+    @SuppressWarnings("unchecked") public ListaOrdenada() {
+        cabeza = new Nodo(null, MAXIMO_NIVEL);
+        cabeza.anchos[0] = 1;
+        nivel = 1;
+        semilla = System.nanoTime() | 1;
+        previos = (Nodo[])new ListaOrdenada<?>.Nodo[MAXIMO_NIVEL];
+        lugares = new int[MAXIMO_NIVEL];
+    }
+
+    /**
+     * Construye una lista ordenada con los elementos recibidos.
+     * @param elementos los elementos de la lista.
+     */
+    public ListaOrdenada(Iterable<T> elementos) {
+        this();
+        for (T elemento : elementos)
+            agrega(elemento);
+    }
+
+    /**
+     * Regresa la longitud de la lista.
+     * @return el número de elementos en la lista.
+     */
+    public int getLongitud() {
+        return longitud;
+    }
+
+    /**
+     * Agrega un elemento en su lugar. Si ya había elementos iguales,
+     * el nuevo queda después de ellos.
+     * @param elemento el elemento a agregar.
+     * @throws IllegalArgumentException si el elemento es
+     *         <tt>null</tt>.
+     */
+    public void agrega(T elemento) {
+        if (elemento == null)
+            throw new IllegalArgumentException();
+        busca(elemento, true);
+        int niveles = nivelAleatorio();
+        if (niveles > nivel) {
+            for (int l = nivel; l < niveles; l++) {
+                previos[l] = cabeza;
+                lugares[l] = 0;
+                cabeza.siguientes[l] = null;
+                cabeza.anchos[l] = longitud + 1;
+            }
+            nivel = niveles;
+        }
+        Nodo n = new Nodo(elemento, niveles);
+        int lugar = lugares[0] + 1;
+        for (int l = 0; l < niveles; l++) {
+            Nodo p = previos[l];
+            n.siguientes[l] = p.siguientes[l];
+            p.siguientes[l] = n;
+            n.anchos[l] = p.anchos[l] - (lugar - lugares[l]) + 1;
+            p.anchos[l] = lugar - lugares[l];
+        }
+        for (int l = niveles; l < nivel; l++)
+            previos[l].anchos[l]++;
+        longitud++;
+    }
+
+    /**
+     * Elimina la primera aparición del elemento. Si el elemento no
+     * está en la lista, el método no la modifica.
+     * @param elemento el elemento a eliminar.
+     */
+    public void elimina(T elemento) {
+        if (elemento == null)
+            return;
+        busca(elemento, false);
+        Nodo n = previos[0].siguientes[0];
+        if (n == null || n.elemento.compareTo(elemento) != 0)
+            return;
+        for (int l = 0; l < nivel; l++) {
+            Nodo p = previos[l];
+            if (p.siguientes[l] == n) {
+                p.siguientes[l] = n.siguientes[l];
+                p.anchos[l] += n.anchos[l] - 1;
+            } else {
+                p.anchos[l]--;
+            }
+        }
+        while (nivel > 1 && cabeza.siguientes[nivel-1] == null)
+            nivel--;
+        longitud--;
+    }
+
+    /**
+     * Nos dice si un elemento está en la lista.
+     * @param elemento el elemento a buscar.
+     * @return <tt>true</tt> si el elemento está en la lista,
+     *         <tt>false</tt> en otro caso.
+     */
+    public boolean contiene(T elemento) {
+        return indiceDe(elemento) != -1;
+    }
+
+    /**
+     * Regresa el índice de la primera aparición del elemento.
+     * @param elemento el elemento del que se busca el índice.
+     * @return el índice del elemento en la lista, o -1 si el elemento
+     *         no está en la lista.
+     */
+    public int indiceDe(T elemento) {
+        if (elemento == null)
+            return -1;
+        busca(elemento, false);
+        Nodo n = previos[0].siguientes[0];
+        if (n == null || n.elemento.compareTo(elemento) != 0)
+            return -1;
+        return lugares[0];
+    }
+
+    /**
+     * Regresa el <em>i</em>-ésimo elemento de la lista.
+     * @param i el índice del elemento que queremos.
+     * @return el <em>i</em>-ésimo elemento de la lista.
+     * @throws ExcepcionIndiceInvalido si el índice recibido es
+     *         menor que cero, o mayor que el número de elementos en
+     *         la lista menos uno.
+     */
+    public T get(int i) {
+        if (i < 0 || i >= longitud)
+            throw new ExcepcionIndiceInvalido();
+        Nodo n = cabeza;
+        int lugar = 0;
+        for (int l = nivel - 1; l >= 0; l--)
+            while (n.siguientes[l] != null && lugar + n.anchos[l] <= i + 1) {
+                lugar += n.anchos[l];
+                n = n.siguientes[l];
+            }
+        return n.elemento;
+    }
+
+    /**
+     * Regresa el primer elemento de la lista.
+     * @return el primer elemento de la lista.
+     * @throws NoSuchElementException si la lista es vacía.
+     */
+    public T getPrimero() {
+        if (longitud == 0)
+            throw new NoSuchElementException();
+        return cabeza.siguientes[0].elemento;
+    }
+
+    /**
+     * Regresa el último elemento de la lista.
+     * @return el último elemento de la lista.
+     * @throws NoSuchElementException si la lista es vacía.
+     */
+    public T getUltimo() {
+        if (longitud == 0)
+            throw new NoSuchElementException();
+        return get(longitud - 1);
+    }
+
+    /**
+     * Limpia la lista de elementos.
+     */
+    public void limpia() {
+        for (int l = 0; l < MAXIMO_NIVEL; l++)
+            cabeza.siguientes[l] = null;
+        nivel = 1;
+        longitud = 0;
+        cabeza.anchos[0] = 1;
+    }
+
+    /**
+     * Regresa un objeto iterable con los elementos mayores o iguales
+     * que <tt>desde</tt> y menores que <tt>hasta</tt>, en orden. El
+     * primero se encuentra en tiempo logarítmico esperado, y los
+     * demás se recorren en tiempo constante cada uno. La lista no
+     * debe modificarse mientras se recorre el rango.
+     * @param desde el límite inferior, incluido.
+     * @param hasta el límite superior, excluido.
+     * @return los elementos en el rango.
+     */
+    public Iterable<T> rango(T desde, T hasta) {
+        return () -> new Iterador(primeroDesde(desde), hasta);
+    }
+
+    /**
+     * Regresa una {@link Lista} con los elementos en orden.
+     * @return una lista con los elementos en orden.
+     */
+    public Lista<T> aLista() {
+        Lista<T> l = new Lista<T>();
+        for (T elemento : this)
+            l.agregaFinal(elemento);
+        return l;
+    }
+
+    /**
+     * Regresa un iterador para recorrer la lista en orden.
+     * @return un iterador para recorrer la lista en orden.
+     */
+    @Override public Iterator<T> iterator() {
+        return new Iterador(cabeza.siguientes[0], null);
+    }
+
+    /**
+     * Regresa una representación en cadena de la lista.
+     * @return una representación en cadena de la lista.
+     */
+    @Override public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (Nodo n = cabeza.siguientes[0]; n != null; n = n.siguientes[0]) {
+            if (n != cabeza.siguientes[0])
+                sb.append(", ");
+            sb.append(n.elemento);
+        }
+        return sb.append("]").toString();
+    }
+
+    /* Busca el lugar del elemento y deja en previos el último nodo
+     * de cada nivel antes de él, y en lugares cuántos elementos hay
+     * hasta ese nodo. Si después es verdadero, el lugar queda después
+     * de los elementos iguales; si no, antes. */
+    private void busca(T elemento, boolean despues) {
+        Nodo n = cabeza;
+        int lugar = 0;
+        for (int l = nivel - 1; l >= 0; l--) {
+            while (n.siguientes[l] != null) {
+                int c = n.siguientes[l].elemento.compareTo(elemento);
+                if (c > 0 || (c == 0 && !despues))
+                    break;
+                lugar += n.anchos[l];
+                n = n.siguientes[l];
+            }
+            previos[l] = n;
+            lugares[l] = lugar;
+        }
+    }
+
+    /* Regresa el primer nodo cuyo elemento no es menor que el
+     * recibido, o null. A diferencia de busca, no toca previos ni
+     * lugares, así que los iteradores de rangos no comparten estado
+     * con la lista. */
+    private Nodo primeroDesde(T elemento) {
+        Nodo n = cabeza;
+        for (int l = nivel - 1; l >= 0; l--)
+            while (n.siguientes[l] != null &&
+                   n.siguientes[l].elemento.compareTo(elemento) < 0)
+                n = n.siguientes[l];
+        return n.siguientes[0];
+    }
+
+    /* Regresa un número de niveles aleatorio; cada nivel extra tiene
+     * probabilidad 1/4. */
+    private int nivelAleatorio() {
+        semilla ^= semilla << 13;
+        semilla ^= semilla >>> 7;
+        semilla ^= semilla << 17;
+        int niveles = 1 + Long.numberOfTrailingZeros(semilla) / 2;
+        return Math.min(niveles, MAXIMO_NIVEL);
+    }
+}
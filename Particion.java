@@ -0,0 +1,220 @@
+package mx.unam.ciencias.edd;
+
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para particiones balanceadas de una {@link Grafica}.</p>
+ *
+ * <p>La partición asigna a cada vértice una parte entre 0 y
+ * <em>k</em>-1, buscando que las partes tengan tamaños parecidos y
+ * que pocas aristas las crucen. Primero corta el orden BFS de la
+ * gráfica en <em>k</em> pedazos contiguos, y luego refina con
+ * propagación de etiquetas acotada: un vértice se mueve a la parte
+ * con la que tiene más peso de aristas, siempre que gane algo y la
+ * parte destino no se pase de su capacidad.</p>
+ *
+ * <p>La partición describe a la gráfica en el momento de crearla;
+ * {@link Grafica#generaScalableVectorGraphics(Particion)} la dibuja
+ * con una región de color por parte.</p>
+ */
+public class Particion<T> {
+
+    /* La forma compacta de la gráfica. */
+    private AdyacenciaCompacta<T> csr;
+    /* La parte de cada vértice. */
+    private int[] parte;
+    /* El tamaño de cada parte. */
+    private int[] tamanos;
+    /* Los vértices agrupados por parte. */
+    private int[] porParte;
+    /* Dónde empieza cada parte en porParte. */
+    private int[] inicioParte;
+    /* La parte de cada elemento. */
+    private Diccionario<T, Integer> partes;
+    /* Número de aristas cortadas. */
+    private int cortadas;
+    /* Peso de las aristas cortadas. */
+    private double pesoCortado;
+
+    /**
+     * Construye una partición de la gráfica en <em>k</em> partes,
+     * con un desbalance máximo de 5% y a lo más 20 rondas de
+     * refinamiento.
+     * @param grafica la gráfica a partir.
+     * @param k el número de partes.
+     * @throws IllegalArgumentException si k es menor que uno o la
+     *         gráfica es dirigida.
+     */
+    public Particion(Grafica<T> grafica, int k) {
+        this(grafica, k, 0.05, 20);
+    }
+
+    /**
+     * Construye una partición de la gráfica en <em>k</em> partes.
+     * @param grafica la gráfica a partir.
+     * @param k el número de partes.
+     * @param desbalance cuánto puede pasarse una parte del tamaño
+     *        promedio, como fracción; por ejemplo 0.05 es 5%.
+     * @param rondas el máximo de rondas de refinamiento.
+     * @throws IllegalArgumentException si k es menor que uno, el
+     *         desbalance es negativo, las rondas son negativas o la
+     *         gráfica es dirigida.
+     */
+    public Particion(Grafica<T> grafica, int k, double desbalance, int rondas) {
+        if (k < 1 || desbalance < 0 || rondas < 0 || grafica.esDirigida())
+            throw new IllegalArgumentException();
+        csr = grafica.compacta();
+        int n = csr.getVertices();
+        parte = new int[n];
+        tamanos = new int[k];
+        /* Cortamos el orden BFS en pedazos contiguos. */
+        int[] orden = csr.ordenBFS();
+        for (int p = 0; p < n; p++) {
+            int t = (int)((long)p * k / n);
+            parte[orden[p]] = t;
+            tamanos[t]++;
+        }
+        int capacidad = (int)Math.ceil((double)n / k * (1 + desbalance));
+        refina(k, Math.max(capacidad, 1), rondas);
+        inicioParte = new int[k + 1];
+        for (int t = 0; t < k; t++)
+            inicioParte[t+1] = inicioParte[t] + tamanos[t];
+        porParte = new int[n];
+        int[] siguiente = inicioParte.clone();
+        for (int i = 0; i < n; i++)
+            porParte[siguiente[parte[i]]++] = i;
+        partes = new Diccionario<T, Integer>();
+        for (int i = 0; i < n; i++) {
+            partes.agrega(csr.getElemento(i), parte[i]);
+            for (int a = csr.inicio[i]; a < csr.inicio[i+1]; a++)
+                if (csr.vecinos[a] > i && parte[csr.vecinos[a]] != parte[i]) {
+                    cortadas++;
+                    pesoCortado += csr.pesos[a];
+                }
+        }
+    }
+
+    /* Mueve vértices a la parte con la que tienen más peso, mientras
+     * haya ganancia y capacidad. */
+    private void refina(int k, int capacidad, int rondas) {
+        double[] peso = new double[k];
+        for (int r = 0; r < rondas; r++) {
+            int movidos = 0;
+            for (int i = 0; i < parte.length; i++) {
+                for (int a = csr.inicio[i]; a < csr.inicio[i+1]; a++)
+                    peso[parte[csr.vecinos[a]]] += csr.pesos[a];
+                int actual = parte[i], mejor = actual;
+                for (int a = csr.inicio[i]; a < csr.inicio[i+1]; a++) {
+                    int p = parte[csr.vecinos[a]];
+                    if (peso[p] > peso[mejor] && tamanos[p] < capacidad)
+                        mejor = p;
+                }
+                for (int a = csr.inicio[i]; a < csr.inicio[i+1]; a++)
+                    peso[parte[csr.vecinos[a]]] = 0;
+                /* No vaciamos partes. */
+                if (mejor != actual && tamanos[actual] > 1) {
+                    parte[i] = mejor;
+                    tamanos[actual]--;
+                    tamanos[mejor]++;
+                    movidos++;
+                }
+            }
+            if (movidos == 0)
+                break;
+        }
+    }
+
+    /**
+     * Regresa el número de partes.
+     * @return el número de partes.
+     */
+    public int getPartes() {
+        return tamanos.length;
+    }
+
+    /**
+     * Regresa la parte del elemento.
+     * @param elemento el elemento.
+     * @return la parte del elemento, entre 0 y el número de partes
+     *         menos uno.
+     * @throws NoSuchElementException si el elemento no estaba en la
+     *         gráfica al crear la partición.
+     */
+    public int getParte(T elemento) {
+        if (!partes.contiene(elemento))
+            throw new NoSuchElementException();
+        return partes.get(elemento);
+    }
+
+    /**
+     * Nos dice si el elemento está en la partición.
+     * @param elemento el elemento.
+     * @return <tt>true</tt> si el elemento estaba en la gráfica al
+     *         crear la partición, <tt>false</tt> en otro caso.
+     */
+    public boolean contiene(T elemento) {
+        return partes.contiene(elemento);
+    }
+
+    /**
+     * Regresa el número de vértices en una parte.
+     * @param p la parte.
+     * @return el número de vértices en la parte.
+     * @throws ExcepcionIndiceInvalido si la parte no existe.
+     */
+    public int getTamano(int p) {
+        revisa(p);
+        return tamanos[p];
+    }
+
+    /**
+     * Regresa una lista con los elementos de una parte, en el orden
+     * de la gráfica.
+     * @param p la parte.
+     * @return los elementos de la parte.
+     * @throws ExcepcionIndiceInvalido si la parte no existe.
+     */
+    public Lista<T> elementos(int p) {
+        revisa(p);
+        Lista<T> lista = new Lista<T>();
+        for (int i = inicioParte[p]; i < inicioParte[p+1]; i++)
+            lista.agregaFinal(csr.getElemento(porParte[i]));
+        return lista;
+    }
+
+    /**
+     * Regresa el número de aristas entre partes distintas.
+     * @return el número de aristas cortadas.
+     */
+    public int getAristasCortadas() {
+        return cortadas;
+    }
+
+    /**
+     * Regresa la suma de los pesos de las aristas entre partes
+     * distintas.
+     * @return el peso de las aristas cortadas.
+     */
+    public double getPesoCortado() {
+        return pesoCortado;
+    }
+
+    /**
+     * Regresa el desbalance de la partición: el tamaño de la parte
+     * más grande entre el tamaño promedio.
+     * @return el desbalance de la partición; 1 es perfecto.
+     */
+    public double getDesbalance() {
+        int maximo = 0;
+        for (int t : tamanos)
+            maximo = Math.max(maximo, t);
+        return parte.length == 0 ? 1 : maximo * tamanos.length /
+            (double)parte.length;
+    }
+
+    /* Revisa que la parte exista. */
+    private void revisa(int p) {
+        if (p < 0 || p >= tamanos.length)
+            throw new ExcepcionIndiceInvalido();
+    }
+}
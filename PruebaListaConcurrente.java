@@ -0,0 +1,165 @@
+package mx.unam.ciencias.edd;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Prueba de estrés y de contención para {@link ListaConcurrente}.</p>
+ *
+ * <p>La prueba de estrés pone productores en ambos extremos y
+ * consumidores en ambos extremos al mismo tiempo, y comprueba que
+ * cada elemento salga exactamente una vez. La prueba de contención
+ * mide el tiempo por operación de pares <tt>agregaFinal</tt> /
+ * <tt>eliminaPrimero</tt> con 1, 2, 4, ... hilos, contra un
+ * <tt>ConcurrentLinkedDeque</tt> como referencia.</p>
+ *
+<pre>
+    java mx.unam.ciencias.edd.PruebaListaConcurrente [hilos] [elementos]
+</pre>
+ *
+ * <p>Termina con estado 1 si la prueba de estrés falla.</p>
+ */
+public class PruebaListaConcurrente {
+
+    /* Operaciones por hilo en la prueba de contención. */
+    private static final int OPERACIONES = 1 << 20;
+
+    /**
+     * Corre la prueba de estrés y la de contención.
+     * @param args el número de hilos por lado y de elementos por
+     *        productor, opcionales.
+     * @throws InterruptedException si se interrumpe la espera de los
+     *         hilos.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int hilos = args.length > 0 ? Integer.parseInt(args[0]) :
+            Math.max(2, Runtime.getRuntime().availableProcessors());
+        int elementos = args.length > 1 ? Integer.parseInt(args[1]) : 200000;
+        for (int ronda = 0; ronda < 10; ronda++) {
+            String error = estres(hilos, elementos);
+            if (error != null) {
+                System.out.printf("Estrés, ronda %d: FALLA: %s%n", ronda, error);
+                System.exit(1);
+            }
+        }
+        System.out.printf("Estrés: %d productores y %d consumidores, " +
+                          "%d elementos cada productor, 10 rondas: bien%n",
+                          hilos, hilos, elementos);
+        for (int h = 1; h <= hilos; h *= 2) {
+            double lista = contencionLista(h);
+            double referencia = contencionReferencia(h);
+            System.out.printf("Contención, %d hilos: ListaConcurrente " +
+                              "%.1f ns/op, ConcurrentLinkedDeque %.1f ns/op%n",
+                              h, lista, referencia);
+        }
+    }
+
+    /* Corre productores y consumidores en ambos extremos; regresa
+     * null si cada elemento salió exactamente una vez, o una
+     * descripción del error. */
+    private static String estres(int hilos, int elementos)
+        throws InterruptedException {
+        ListaConcurrente<Integer> lista = new ListaConcurrente<Integer>();
+        int total = hilos * elementos;
+        AtomicInteger[] vistos = new AtomicInteger[total];
+        for (int i = 0; i < total; i++)
+            vistos[i] = new AtomicInteger();
+        AtomicInteger terminados = new AtomicInteger();
+        Thread[] productores = new Thread[hilos];
+        Thread[] consumidores = new Thread[hilos];
+        for (int t = 0; t < hilos; t++) {
+            int base = t * elementos;
+            productores[t] = new Thread(() -> {
+                for (int i = 0; i < elementos; i++)
+                    if ((i & 1) == 0)
+                        lista.agregaFinal(base + i);
+                    else
+                        lista.agregaInicio(base + i);
+                terminados.incrementAndGet();
+            });
+            boolean porElFinal = (t & 1) == 1;
+            consumidores[t] = new Thread(() -> {
+                while (true) {
+                    try {
+                        int e = porElFinal ? lista.eliminaUltimo() :
+                            lista.eliminaPrimero();
+                        vistos[e].incrementAndGet();
+                    } catch (NoSuchElementException nsee) {
+                        if (terminados.get() == hilos && lista.esVacia())
+                            return;
+                    }
+                }
+            });
+        }
+        for (int t = 0; t < hilos; t++) {
+            productores[t].start();
+            consumidores[t].start();
+        }
+        for (int t = 0; t < hilos; t++) {
+            productores[t].join();
+            consumidores[t].join();
+        }
+        for (int i = 0; i < total; i++)
+            if (vistos[i].get() != 1)
+                return "el elemento " + i + " salió " + vistos[i].get() +
+                    " veces";
+        if (lista.getLongitud() != 0)
+            return "la longitud final es " + lista.getLongitud();
+        return null;
+    }
+
+    /* Regresa los nanosegundos por operación de h hilos haciendo
+     * pares agregaFinal/eliminaPrimero en una ListaConcurrente. */
+    private static double contencionLista(int h)
+        throws InterruptedException {
+        ListaConcurrente<Integer> lista = new ListaConcurrente<Integer>();
+        Runnable trabajo = () -> {
+            for (int i = 0; i < OPERACIONES / 2; i++) {
+                lista.agregaFinal(i);
+                lista.eliminaPrimero();
+            }
+        };
+        return mide(h, trabajo);
+    }
+
+    /* Regresa los nanosegundos por operación de h hilos haciendo
+     * pares offerLast/pollFirst en un ConcurrentLinkedDeque. */
+    private static double contencionReferencia(int h)
+        throws InterruptedException {
+        ConcurrentLinkedDeque<Integer> deque =
+            new ConcurrentLinkedDeque<Integer>();
+        Runnable trabajo = () -> {
+            for (int i = 0; i < OPERACIONES / 2; i++) {
+                deque.offerLast(i);
+                deque.pollFirst();
+            }
+        };
+        return mide(h, trabajo);
+    }
+
+    /* Corre el trabajo en h hilos que arrancan juntos, y regresa los
+     * nanosegundos por operación. */
+    private static double mide(int h, Runnable trabajo)
+        throws InterruptedException {
+        CountDownLatch salida = new CountDownLatch(1);
+        Thread[] hilos = new Thread[h];
+        for (int t = 0; t < h; t++) {
+            hilos[t] = new Thread(() -> {
+                try {
+                    salida.await();
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                trabajo.run();
+            });
+            hilos[t].start();
+        }
+        long inicio = System.nanoTime();
+        salida.countDown();
+        for (Thread t : hilos)
+            t.join();
+        return (double)(System.nanoTime() - inicio) / ((long)h * OPERACIONES);
+    }
+}
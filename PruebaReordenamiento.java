@@ -0,0 +1,131 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Random;
+
+/**
+ * <p>Prueba de tiempo para {@link Grafica#reordenaCuthillMcKee} y
+ * {@link Grafica#reordenaBFS}.</p>
+ *
+ * <p>Construye una malla de lado por lado vértices, pero agrega los
+ * vértices y las aristas en orden aleatorio, de manera que los
+ * vecinos quedan lejos en memoria. Luego mide el tiempo de BFS y de
+ * Dijkstra desde varios orígenes con el orden original, después de
+ * reordenar con Cuthill–McKee inverso, y después de reordenar en
+ * orden BFS. Cada Dijkstra usa un origen distinto para que no se
+ * resuelva desde el caché de trayectorias.</p>
+ *
+<pre>
+    java mx.unam.ciencias.edd.PruebaReordenamiento [lado] [repeticiones]
+</pre>
+ */
+public class PruebaReordenamiento {
+
+    /* Semilla del generador, para poder repetir la prueba. */
+    private static final long SEMILLA = 2026;
+
+    /* Suma de los elementos visitados, para que los recorridos no se
+     * puedan omitir. */
+    private static long suma;
+
+    /**
+     * Corre la prueba de tiempo.
+     * @param args el lado de la malla y el número de recorridos por
+     *        medición, opcionales.
+     */
+    public static void main(String[] args) {
+        int lado = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        int repeticiones = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        Random random = new Random(SEMILLA);
+        Grafica<Integer> grafica = malla(lado, random);
+        int n = lado * lado;
+        Integer[] origenes = new Integer[4 * repeticiones];
+        for (int i = 0; i < origenes.length; i++)
+            origenes[i] = random.nextInt(n);
+        System.out.printf("Malla de %d vértices y %d aristas%n",
+                          grafica.getVertices(), grafica.getAristas());
+        mide("Orden original", grafica, grafica.getAnchoDeBanda(),
+             origenes, repeticiones);
+        mide("Cuthill–McKee", grafica, grafica.reordenaCuthillMcKee(),
+             origenes, repeticiones);
+        mide("Orden BFS", grafica, grafica.reordenaBFS(),
+             origenes, repeticiones);
+        if (suma == 42)
+            System.out.println();
+    }
+
+    /* Regresa una malla de lado por lado con pesos aleatorios, con
+     * los vértices y las aristas agregados en orden aleatorio. */
+    private static Grafica<Integer> malla(int lado, Random random) {
+        int n = lado * lado;
+        int[] vertices = new int[n];
+        for (int i = 0; i < n; i++)
+            vertices[i] = i;
+        revuelve(vertices, random);
+        Grafica<Integer> grafica = new Grafica<Integer>();
+        for (int v : vertices)
+            grafica.agrega(v);
+        int[] aristas = new int[2 * n];
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            if (i % lado < lado - 1)
+                aristas[m++] = 2 * i;
+            if (i / lado < lado - 1)
+                aristas[m++] = 2 * i + 1;
+        }
+        int[] orden = new int[m];
+        System.arraycopy(aristas, 0, orden, 0, m);
+        revuelve(orden, random);
+        for (int a : orden) {
+            int u = a / 2;
+            int v = (a & 1) == 0 ? u + 1 : u + lado;
+            grafica.conecta(u, v, 1 + random.nextInt(100));
+        }
+        return grafica;
+    }
+
+    /* Revuelve el arreglo con el algoritmo de Fisher–Yates. */
+    private static void revuelve(int[] a, Random random) {
+        for (int i = a.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+    }
+
+    /* Mide e imprime los milisegundos por BFS y por Dijkstra con el
+     * orden actual de la gráfica. La primera mitad de los orígenes se
+     * usa para calentar. */
+    private static void mide(String nombre, Grafica<Integer> grafica,
+                             int anchoDeBanda, Integer[] origenes,
+                             int repeticiones) {
+        int mitad = origenes.length / 2;
+        for (int i = 0; i < mitad; i++) {
+            bfs(grafica, origenes[i]);
+            dijkstra(grafica, origenes[i], origenes[mitad - 1 - i]);
+        }
+        long inicio = System.nanoTime();
+        for (int i = 0; i < repeticiones; i++)
+            bfs(grafica, origenes[mitad + i]);
+        double bfs = (System.nanoTime() - inicio) / 1e6 / repeticiones;
+        inicio = System.nanoTime();
+        for (int i = 0; i < repeticiones; i++)
+            dijkstra(grafica, origenes[mitad + i],
+                     origenes[origenes.length - 1 - i]);
+        double dijkstra = (System.nanoTime() - inicio) / 1e6 / repeticiones;
+        System.out.printf("%s: ancho de banda %d, BFS %.2f ms, " +
+                          "Dijkstra %.2f ms%n",
+                          nombre, anchoDeBanda, bfs, dijkstra);
+    }
+
+    /* Recorre la gráfica en BFS desde el origen. */
+    private static void bfs(Grafica<Integer> grafica, int origen) {
+        grafica.bfs(origen, v -> suma += v.getElemento());
+    }
+
+    /* Calcula la trayectoria de peso mínimo del origen al destino. */
+    private static void dijkstra(Grafica<Integer> grafica, int origen,
+                                 int destino) {
+        suma += grafica.dijkstra(origen, destino).getLongitud();
+    }
+}